@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.SAXException;
+
+import com.maxprograms.languages.Language;
+import com.maxprograms.languages.LanguageUtils;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LanguageUtilsBenchmark {
+
+	@Param({ "en", "es", "fr" })
+	public String locale;
+
+	private String[] names;
+
+	@Setup
+	public void setup() throws SAXException, IOException, ParserConfigurationException {
+		Locale.setDefault(Locale.forLanguageTag(locale));
+		List<Language> all = LanguageUtils.getAllLanguages();
+		names = new String[] { all.get(0).getDescription(), all.get(all.size() / 2).getDescription(),
+				all.get(all.size() - 1).getDescription(), "Not a language" };
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void getLanguage(Blackhole blackhole) throws SAXException, IOException, ParserConfigurationException {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(LanguageUtils.getLanguage(tag));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public void languageFromName(Blackhole blackhole) throws SAXException, IOException, ParserConfigurationException {
+		for (String name : names) {
+			blackhole.consume(LanguageUtils.languageFromName(name));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void normalizeCode(Blackhole blackhole) throws IOException {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(LanguageUtils.normalizeCode(tag));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.maxprograms.languages.OfficeParser;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OfficeParserBenchmark {
+
+	private OfficeParser parser;
+
+	@Setup
+	public void setup() throws IOException {
+		parser = new OfficeParser();
+	}
+
+	@Benchmark
+	public OfficeParser construct() throws IOException {
+		return new OfficeParser();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void getLCID(Blackhole blackhole) {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(parser.getLCID(tag));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void findLCID(Blackhole blackhole) {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(parser.findLCID(tag));
+		}
+	}
+}
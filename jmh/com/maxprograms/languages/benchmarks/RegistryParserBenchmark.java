@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages.benchmarks;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.maxprograms.languages.RegistryParser;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RegistryParserBenchmark {
+
+	private RegistryParser parser;
+	private RegistryParser cachedParser;
+	private char[][] buffers;
+
+	@Setup
+	public void setup() throws IOException {
+		parser = new RegistryParser();
+		cachedParser = new RegistryParser(1024);
+		buffers = new char[TagMix.SIZE][];
+		for (int i = 0; i < TagMix.SIZE; i++) {
+			buffers[i] = TagMix.TAGS[i].toCharArray();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(10)
+	public RegistryParser coldParse() throws IOException {
+		return new RegistryParser();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(10)
+	public RegistryParser coldParseText() throws IOException {
+		URL url = RegistryParser.class.getResource("language-subtag-registry.txt");
+		return new RegistryParser(url);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void normalizeCode(Blackhole blackhole) {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(parser.normalizeCode(tag));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void getTagDescription(Blackhole blackhole) {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(parser.getTagDescription(tag));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void cachedNormalizeCode(Blackhole blackhole) {
+		for (String tag : TagMix.TAGS) {
+			blackhole.consume(cachedParser.normalizeCode(tag));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TagMix.SIZE)
+	public void normalizeChars(Blackhole blackhole) {
+		for (char[] buffer : buffers) {
+			blackhole.consume(parser.normalizeCode(buffer, 0, buffer.length));
+		}
+	}
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages.benchmarks;
+
+final class TagMix {
+
+	// simple, scripted, private use and invalid tags in roughly the proportions seen when importing TMX files
+	static final String[] TAGS = {
+			"en", "en-US", "fr-FR", "de-DE", "es-ES", "it-IT", "ja-JP", "pt-BR", "EN-us", "es-419",
+			"zh-Hans-CN", "zh-Hant-TW", "sr-Latn-RS", "sr-Cyrl-RS", "de-CH-1901",
+			"qaa", "qtz-Latn", "en-US-x-twain", "x-private",
+			"xx-YY", "en--US", "toolongsubtag", "en-Latn" };
+
+	// benchmarks declare this in @OperationsPerInvocation, keep it equal to TAGS.length
+	static final int SIZE = 23;
+
+	private TagMix() {
+		// do not instantiate
+	}
+}
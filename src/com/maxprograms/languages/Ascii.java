@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+final class Ascii {
+
+	// BCP 47 tags are ASCII only; these never depend on the default locale
+	static final int ALPHA = 1;
+	static final int DIGIT = 2;
+
+	private static final byte[] TYPES = new byte[128];
+	private static final char[] LOWER = new char[128];
+	private static final char[] UPPER = new char[128];
+
+	static {
+		for (char c = 0; c < 128; c++) {
+			LOWER[c] = c;
+			UPPER[c] = c;
+		}
+		for (char c = 'a'; c <= 'z'; c++) {
+			char upper = (char) (c - 32);
+			TYPES[c] = ALPHA;
+			TYPES[upper] = ALPHA;
+			LOWER[upper] = c;
+			UPPER[c] = upper;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			TYPES[c] = DIGIT;
+		}
+	}
+
+	private Ascii() {
+		// do not instantiate
+	}
+
+	// ALPHA, DIGIT or 0 for any other character
+	static int type(char c) {
+		return c < 128 ? TYPES[c] : 0;
+	}
+
+	static boolean isDigit(char c) {
+		return type(c) == DIGIT;
+	}
+
+	static char toLower(char c) {
+		return c < 128 ? LOWER[c] : c;
+	}
+
+	static char toUpper(char c) {
+		return c < 128 ? UPPER[c] : c;
+	}
+
+	// returns the same instance when there is nothing to fold
+	static String toLowerCase(String text) {
+		int i = 0;
+		while (i < text.length() && toLower(text.charAt(i)) == text.charAt(i)) {
+			i++;
+		}
+		if (i == text.length()) {
+			return text;
+		}
+		char[] chars = text.toCharArray();
+		for (; i < chars.length; i++) {
+			chars[i] = toLower(chars[i]);
+		}
+		return new String(chars);
+	}
+}
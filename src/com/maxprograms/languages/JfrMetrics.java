@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+public class JfrMetrics implements LookupMetrics {
+
+	public JfrMetrics() {
+		// events carry all state
+	}
+
+	@Override
+	public void registryLoaded(String source, long nanos) {
+		RegistryLoadEvent event = new RegistryLoadEvent();
+		if (event.isEnabled()) {
+			event.source = source;
+			event.elapsed = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void bundleLoaded(String bundle, String language, long nanos) {
+		BundleLoadEvent event = new BundleLoadEvent();
+		if (event.isEnabled()) {
+			event.bundle = bundle;
+			event.language = language;
+			event.elapsed = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void lookup(Operation operation, long nanos) {
+		LookupEvent event = new LookupEvent();
+		if (event.isEnabled()) {
+			event.operation = operation.name();
+			event.elapsed = nanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void rejected(Operation operation, Rejection reason) {
+		RejectedTagEvent event = new RejectedTagEvent();
+		if (event.isEnabled()) {
+			event.operation = operation.name();
+			event.reason = reason.name();
+			event.commit();
+		}
+	}
+
+	@Name("com.maxprograms.languages.RegistryLoad")
+	@Label("Registry Load")
+	@Category("BCP47J")
+	@StackTrace(false)
+	static class RegistryLoadEvent extends Event {
+		@Label("Source")
+		String source;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.maxprograms.languages.BundleLoad")
+	@Label("Language List Load")
+	@Category("BCP47J")
+	@StackTrace(false)
+	static class BundleLoadEvent extends Event {
+		@Label("Bundle")
+		String bundle;
+
+		@Label("Language")
+		String language;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.maxprograms.languages.Lookup")
+	@Label("Tag Lookup")
+	@Description("One normalize, canonicalize or describe call, disabled by default because of its rate")
+	@Category("BCP47J")
+	@Enabled(false)
+	@StackTrace(false)
+	static class LookupEvent extends Event {
+		@Label("Operation")
+		String operation;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.maxprograms.languages.RejectedTag")
+	@Label("Rejected Tag")
+	@Category("BCP47J")
+	@StackTrace(false)
+	static class RejectedTagEvent extends Event {
+		@Label("Operation")
+		String operation;
+
+		@Label("Reason")
+		String reason;
+	}
+}
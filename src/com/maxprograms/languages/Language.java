@@ -11,6 +11,7 @@ package com.maxprograms.languages;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.Locale;
 
@@ -25,8 +26,9 @@ public class Language implements Comparable<Language>, Serializable {
 	private String code;
 	private String description;
 	private String suppresedScript;
-
-	private static Collator collator;
+	// set for languages of a locale bundle, the key is built with the bundle's collator
+	private transient Collator collator;
+	private transient CollationKey collationKey;
 
 	public Language(String code, String description) {
 		this.code = code;
@@ -34,6 +36,14 @@ public class Language implements Comparable<Language>, Serializable {
 		suppresedScript = "";
 	}
 
+	Language(String code, String description, Collator collator) {
+		this(code, description);
+		this.collator = collator;
+		synchronized (collator) {
+			collationKey = collator.getCollationKey(description);
+		}
+	}
+
 	public String getCode() {
 		return code;
 	}
@@ -57,16 +67,20 @@ public class Language implements Comparable<Language>, Serializable {
 
 	@Override
 	public int compareTo(Language arg0) {
-		if (collator == null) {
-			Locale locale = Locale.getDefault();
-			String resource = "extendedLanguageList_" + locale.getLanguage() + ".xml";
-			if (Language.class.getResourceAsStream(resource) == null) {
-				collator = Collator.getInstance(locale);
-			} else {
-				collator = Collator.getInstance( Locale.forLanguageTag("en"));
-			}			
+		if (collator != null && collator == arg0.collator) {
+			// both languages come from the same locale bundle, keys were computed when it was loaded
+			return collationKey.compareTo(arg0.collationKey);
+		}
+		// a language without a key is compared with the rules of the other one's bundle, so
+		// that a list mixing both kinds is sorted by a single set of rules
+		Collator rules = collator == null ? arg0.collator : collator;
+		if (rules == null || (collator != null && arg0.collator != null)) {
+			// neither language comes from a bundle, or they come from different bundles
+			rules = DefaultCollator.INSTANCE;
+		}
+		synchronized (rules) {
+			return rules.compare(description, arg0.getDescription());
 		}
-		return collator.compare(description, arg0.getDescription());
 	}
 
 	public void setSuppressedScript(String value) {
@@ -89,4 +103,18 @@ public class Language implements Comparable<Language>, Serializable {
 	public int hashCode() {
 		return code.hashCode();
 	}
+
+	private static class DefaultCollator {
+		// Collator is not thread safe, callers synchronize on the instance
+		private static final Collator INSTANCE = create();
+
+		private static Collator create() {
+			Locale locale = Locale.getDefault();
+			String resource = "extendedLanguageList_" + locale.getLanguage() + ".xml";
+			if (Language.class.getResource(resource) == null) {
+				return Collator.getInstance(locale);
+			}
+			return Collator.getInstance(Locale.forLanguageTag("en"));
+		}
+	}
 }
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LanguageMatcher {
+
+	private static final String WILDCARD = "*";
+	private static final int[] NONE = new int[0];
+
+	private final String[] tags;
+	private final String[][] subtags;
+	// every truncation of every tag, at subtag boundaries, to the tags that start with it
+	private final Map<String, int[]> prefixes;
+	private final Map<String, int[]> primaryLanguages;
+	// lower case tags to the first tag with that form, for lookup
+	private final Map<String, String> exactTags;
+
+	public LanguageMatcher(Collection<String> tags) {
+		this.tags = tags.toArray(new String[0]);
+		subtags = new String[this.tags.length][];
+		Map<String, List<Integer>> prefixLists = new HashMap<>();
+		Map<String, List<Integer>> languageLists = new HashMap<>();
+		exactTags = HashMap.newHashMap(this.tags.length);
+		for (int i = 0; i < this.tags.length; i++) {
+			String tag = Ascii.toLowerCase(this.tags[i]);
+			subtags[i] = tag.split("-");
+			int end = tag.indexOf('-');
+			while (end != -1) {
+				prefixLists.computeIfAbsent(tag.substring(0, end), k -> new ArrayList<>()).add(i);
+				end = tag.indexOf('-', end + 1);
+			}
+			prefixLists.computeIfAbsent(tag, k -> new ArrayList<>()).add(i);
+			exactTags.putIfAbsent(tag, this.tags[i]);
+			languageLists.computeIfAbsent(subtags[i][0], k -> new ArrayList<>()).add(i);
+		}
+		prefixes = toArrays(prefixLists);
+		primaryLanguages = toArrays(languageLists);
+	}
+
+	private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+		Map<String, int[]> result = HashMap.newHashMap(lists.size());
+		for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+			List<Integer> list = entry.getValue();
+			int[] array = new int[list.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = list.get(i);
+			}
+			result.put(entry.getKey(), array);
+		}
+		return result;
+	}
+
+	public static List<String> parsePriorityList(String priorityList) {
+		// Accept-Language style list: "fr-CH, fr;q=0.9, *;q=0.5"
+		List<String> ranges = new ArrayList<>();
+		List<Double> weights = new ArrayList<>();
+		for (String item : priorityList.split(",")) {
+			String range = item.trim();
+			double weight = 1.0;
+			int semicolon = range.indexOf(';');
+			if (semicolon != -1) {
+				String parameter = range.substring(semicolon + 1).trim();
+				range = range.substring(0, semicolon).trim();
+				if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+					try {
+						weight = Double.parseDouble(parameter.substring(2).trim());
+					} catch (NumberFormatException e) {
+						weight = 0.0;
+					}
+				}
+			}
+			if (range.isEmpty() || weight <= 0.0) {
+				continue;
+			}
+			int index = 0;
+			while (index < weights.size() && weights.get(index) >= weight) {
+				index++;
+			}
+			ranges.add(index, range);
+			weights.add(index, weight);
+		}
+		return ranges;
+	}
+
+	public List<String> filter(String priorityList) {
+		return filter(parsePriorityList(priorityList));
+	}
+
+	public List<String> filter(List<String> ranges) {
+		// RFC 4647 basic filtering
+		Set<String> result = new LinkedHashSet<>();
+		for (String range : ranges) {
+			if (WILDCARD.equals(range)) {
+				Collections.addAll(result, tags);
+				break;
+			}
+			for (int index : prefixes.getOrDefault(Ascii.toLowerCase(range), NONE)) {
+				result.add(tags[index]);
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	public List<String> filterExtended(String priorityList) {
+		return filterExtended(parsePriorityList(priorityList));
+	}
+
+	public List<String> filterExtended(List<String> ranges) {
+		// RFC 4647 extended filtering
+		Set<String> result = new LinkedHashSet<>();
+		for (String range : ranges) {
+			String[] parts = Ascii.toLowerCase(range).split("-");
+			if (WILDCARD.equals(parts[0])) {
+				for (int i = 0; i < tags.length; i++) {
+					if (matchesExtended(parts, subtags[i])) {
+						result.add(tags[i]);
+					}
+				}
+			} else {
+				for (int index : primaryLanguages.getOrDefault(parts[0], NONE)) {
+					if (matchesExtended(parts, subtags[index])) {
+						result.add(tags[index]);
+					}
+				}
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	private static boolean matchesExtended(String[] range, String[] tag) {
+		int r = 1;
+		int t = 1;
+		while (r < range.length) {
+			if (WILDCARD.equals(range[r])) {
+				r++;
+			} else if (t >= tag.length) {
+				return false;
+			} else if (range[r].equals(tag[t])) {
+				r++;
+				t++;
+			} else if (tag[t].length() == 1) {
+				return false;
+			} else {
+				t++;
+			}
+		}
+		return true;
+	}
+
+	public String lookup(String priorityList, String defaultValue) {
+		return lookup(parsePriorityList(priorityList), defaultValue);
+	}
+
+	public String lookup(List<String> ranges, String defaultValue) {
+		// RFC 4647 lookup: truncate each range until a tag matches it exactly
+		for (String range : ranges) {
+			if (WILDCARD.equals(range)) {
+				continue;
+			}
+			String candidate = Ascii.toLowerCase(range);
+			while (!candidate.isEmpty()) {
+				String tag = exactTags.get(candidate);
+				if (tag != null) {
+					return tag;
+				}
+				candidate = truncate(candidate);
+			}
+		}
+		return defaultValue;
+	}
+
+	private static String truncate(String range) {
+		int end = range.lastIndexOf('-');
+		if (end == -1) {
+			return "";
+		}
+		// never leave a singleton at the end of the range
+		if (end >= 2 && range.charAt(end - 2) == '-') {
+			end -= 2;
+		}
+		return range.substring(0, end);
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class LanguageTag {
+
+	// one instance per canonical form while it is reachable, so equal tags are
+	// the same object; unreachable tags are collected and their entries removed
+	private static final Map<String, TagReference> POOL = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<LanguageTag> COLLECTED = new ReferenceQueue<>();
+
+	private final String canonical;
+	private final int hash;
+	private final String language;
+	private final String extlang;
+	private final String script;
+	private final String region;
+	private final List<String> variants;
+	private final List<String> extensions;
+	private final String privateUse;
+
+	private LanguageTag(String canonical) {
+		this.canonical = canonical;
+		hash = canonical.hashCode();
+		TagTokenizer tokenizer = new TagTokenizer();
+		if (!tokenizer.tokenize(canonical)) {
+			throw new IllegalArgumentException("Malformed language tag: " + canonical);
+		}
+		String lang = null;
+		String ext = null;
+		String scr = null;
+		String reg = null;
+		String priv = null;
+		List<String> variantList = new ArrayList<>();
+		List<String> extensionList = new ArrayList<>();
+		for (int i = 0; i < tokenizer.count(); i++) {
+			String subtag = canonical.substring(tokenizer.start(i), tokenizer.start(i) + tokenizer.length(i));
+			switch (tokenizer.type(i)) {
+				case LANGUAGE:
+					lang = subtag;
+					break;
+				case EXTLANG:
+					ext = subtag;
+					break;
+				case SCRIPT:
+					scr = subtag;
+					break;
+				case REGION:
+					reg = subtag;
+					break;
+				case VARIANT:
+					variantList.add(subtag);
+					break;
+				case SINGLETON:
+					extensionList.add(subtag);
+					break;
+				case EXTENSION:
+					int last = extensionList.size() - 1;
+					extensionList.set(last, extensionList.get(last) + '-' + subtag);
+					break;
+				default:
+					// private use runs to the end of the tag
+					if (priv == null) {
+						priv = canonical.substring(tokenizer.start(i));
+					}
+			}
+		}
+		language = lang;
+		extlang = ext;
+		script = scr;
+		region = reg;
+		privateUse = priv;
+		variants = Collections.unmodifiableList(variantList);
+		extensions = Collections.unmodifiableList(extensionList);
+	}
+
+	static LanguageTag intern(String canonical) {
+		expunge();
+		TagReference reference = POOL.get(canonical);
+		LanguageTag tag = reference == null ? null : reference.get();
+		if (tag != null) {
+			return tag;
+		}
+		LanguageTag created = new LanguageTag(canonical);
+		TagReference candidate = new TagReference(created);
+		while (true) {
+			reference = POOL.get(canonical);
+			if (reference == null) {
+				if (POOL.putIfAbsent(canonical, candidate) == null) {
+					return created;
+				}
+			} else {
+				tag = reference.get();
+				if (tag != null) {
+					return tag;
+				}
+				// collected but not expunged yet
+				if (POOL.replace(canonical, reference, candidate)) {
+					return created;
+				}
+			}
+		}
+	}
+
+	private static void expunge() {
+		Reference<? extends LanguageTag> reference;
+		while ((reference = COLLECTED.poll()) != null) {
+			TagReference collected = (TagReference) reference;
+			POOL.remove(collected.canonical, collected);
+		}
+	}
+
+	private static final class TagReference extends WeakReference<LanguageTag> {
+
+		private final String canonical;
+
+		TagReference(LanguageTag tag) {
+			super(tag, COLLECTED);
+			canonical = tag.canonical;
+		}
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public String getExtlang() {
+		return extlang;
+	}
+
+	public String getScript() {
+		return script;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public List<String> getVariants() {
+		return variants;
+	}
+
+	public List<String> getExtensions() {
+		return extensions;
+	}
+
+	public String getPrivateUse() {
+		return privateUse;
+	}
+
+	@Override
+	public String toString() {
+		return canonical;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		return obj instanceof LanguageTag tag && canonical.equals(tag.canonical);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -10,30 +10,40 @@
 package com.maxprograms.languages;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
-
-import com.maxprograms.xml.Element;
-import com.maxprograms.xml.SAXBuilder;
+import org.xml.sax.helpers.DefaultHandler;
 
 public class LanguageUtils {
 
-	private static final Map<String, LanguageBundle> EXTENDED_LANGUAGE_CACHE = new HashMap<>();
-	private static final Map<String, List<Language>> COMMON_LANGUAGE_CACHE = new HashMap<>();
-	private static RegistryParser registry;
+	private static final LocaleCache<LanguageBundle> EXTENDED_LANGUAGE_CACHE = new LocaleCache<>();
+	private static final LocaleCache<List<Language>> COMMON_LANGUAGE_CACHE = new LocaleCache<>();
+	// one collator per bundle key, so that languages of the common and extended lists compare by key
+	private static final Map<String, Collator> COLLATORS = new ConcurrentHashMap<>();
+	private static final int REGISTRY_CACHE_SIZE = 4096;
+	private static volatile ReloadableRegistry registry;
 
 	private LanguageUtils() {
 		// do not instantiate
@@ -47,66 +57,160 @@ public class LanguageUtils {
 
 	public static List<Language> getCommonLanguages() throws SAXException, IOException, ParserConfigurationException {
 		Locale locale = Locale.getDefault();
-		String key = localeKey(locale);
-		List<Language> cached = COMMON_LANGUAGE_CACHE.get(key);
-		if (cached != null) {
-			return cached;
-		}
-		List<Language> list = new Vector<>();
-		SAXBuilder builder = new SAXBuilder();
-		URL resource = resolveResource("languageList", locale);
-		Element root = builder.build(resource).getRootElement();
-		List<Element> children = root.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element lang = it.next();
-			String code = lang.getAttributeValue("code");
-			String description = lang.getText();
-			list.add(new Language(code, description));
-		}
-		Collator collator = Collator.getInstance(locale == null ? Locale.getDefault() : locale);
-		Collections.sort(list, (l1, l2) -> collator.compare(l1.getDescription(), l2.getDescription()));
-		COMMON_LANGUAGE_CACHE.put(key, list);
-		return list;
+		return COMMON_LANGUAGE_CACHE.get(localeKey(locale), () -> loadCommonLanguages(locale));
 	}
 
-	public static Language getLanguage(String code) throws IOException, SAXException, ParserConfigurationException {
-		List<Language> list = getAllLanguages();
-		Iterator<Language> it = list.iterator();
-		while (it.hasNext()) {
-			Language l = it.next();
-			if (l.getCode().equals(code)) {
-				return l;
-			}
+	public static void preload(Locale... locales) throws SAXException, IOException, ParserConfigurationException {
+		for (Locale locale : locales) {
+			loadExtendedLanguages(locale);
+			COMMON_LANGUAGE_CACHE.get(localeKey(locale), () -> loadCommonLanguages(locale));
 		}
-		if (registry == null) {
-			registry = new RegistryParser(LanguageUtils.class.getResource("language-subtag-registry.txt"));
+	}
+
+	private static List<Language> loadCommonLanguages(Locale locale)
+			throws SAXException, IOException, ParserConfigurationException {
+		long start = System.nanoTime();
+		List<Language> list = new ArrayList<>();
+		Collator collator = collator(locale);
+		readLanguages(resolveResource("languageList", locale), collator, list, null);
+		Collections.sort(list);
+		loaded("languageList", locale, start);
+		return Collections.unmodifiableList(list);
+	}
+
+	public static Language getLanguage(String code) throws IOException, SAXException, ParserConfigurationException {
+		return getLanguage(code, false);
+	}
+
+	public static Language getLanguage(String code, boolean ignoreCase)
+			throws IOException, SAXException, ParserConfigurationException {
+		LanguageBundle bundle = loadExtendedLanguages(Locale.getDefault());
+		Language language = ignoreCase ? bundle.byCodeIgnoreCase.get(Ascii.toLowerCase(code))
+				: bundle.byCode.get(code);
+		if (language != null) {
+			return language;
 		}
-		String description = registry.getTagDescription(code);
-		if (description != null) {
-			return new Language(code, description);
+		String description = getRegistry().getTagDescription(code);
+		if (!description.isEmpty()) {
+			// keyed like the bundle's languages, so both kinds sort together
+			return new Language(code, description, bundle.collator);
 		}
 		return null;
 	}
 
-	public static Language languageFromName(String description)
+	public static List<Language> searchLanguages(String prefix, int limit)
 			throws SAXException, IOException, ParserConfigurationException {
-		List<Language> list = getAllLanguages();
-		Iterator<Language> it = list.iterator();
-		while (it.hasNext()) {
-			Language l = it.next();
-			if (l.getDescription().equals(description)) {
-				return l;
-			}
+		return searchLanguages(prefix, limit, Locale.getDefault());
+	}
+
+	public static List<Language> searchLanguages(String prefix, int limit, Locale locale)
+			throws SAXException, IOException, ParserConfigurationException {
+		LanguageBundle bundle = loadExtendedLanguages(locale);
+		return bundle.prefixes.search(prefix, limit);
+	}
+
+	public static String getTagDescription(String code, Locale locale)
+			throws SAXException, IOException, ParserConfigurationException {
+		LanguageBundle bundle = loadExtendedLanguages(locale);
+		Language language = bundle.byCode.get(code);
+		if (language != null) {
+			return language.getDescription();
 		}
-		return null;
+		// JDK names of scripts and regions are used only when the language names and
+		// the private use label are also translated, otherwise the whole description
+		// stays in the default language
+		if (bundle.resolvedLanguage.isEmpty() || !bundle.resolvedLanguage.equals(Messages.getLanguage(locale))) {
+			bundle = loadExtendedLanguages(Locale.ROOT);
+			return getRegistry().describe(code, Messages.getString("RegistryParser.0", Locale.ROOT), bundle.byCode,
+					null);
+		}
+		return getRegistry().describe(code, Messages.getString("RegistryParser.0", locale), bundle.byCode, locale);
+	}
+
+	public static Language languageFromName(String description)
+			throws SAXException, IOException, ParserConfigurationException {
+		return languageFromName(description, false);
+	}
+
+	public static Language languageFromName(String description, boolean ignoreCase)
+			throws SAXException, IOException, ParserConfigurationException {
+		LanguageBundle bundle = loadExtendedLanguages(Locale.getDefault());
+		return ignoreCase ? bundle.byDescriptionIgnoreCase.get(description.toLowerCase(Locale.ROOT))
+				: bundle.byDescription.get(description);
 	}
 
 	public static String normalizeCode(String code) throws IOException {
-		if (registry == null) {
-			registry = new RegistryParser(LanguageUtils.class.getResource("language-subtag-registry.txt"));
+		return getRegistry().normalizeCode(code);
+	}
+
+	public static String normalizeCode(CharSequence code) throws IOException {
+		return getRegistry().normalizeCode(code);
+	}
+
+	public static String normalizeCode(char[] code, int offset, int length) throws IOException {
+		return getRegistry().normalizeCode(code, offset, length);
+	}
+
+	public static String normalizeCode(byte[] code, int offset, int length) throws IOException {
+		return getRegistry().normalizeCode(code, offset, length);
+	}
+
+	public static String normalizeCode(ByteBuffer code) throws IOException {
+		return getRegistry().normalizeCode(code);
+	}
+
+	public static String canonicalizeCode(String code) throws IOException {
+		return getRegistry().canonicalizeCode(code);
+	}
+
+	public static ValidationResult validate(String code) throws IOException {
+		return getRegistry().validate(code);
+	}
+
+	public static String getMacrolanguage(String code) throws IOException {
+		return getRegistry().getMacrolanguage(code);
+	}
+
+	public static List<String> getEncompassedLanguages(String code) throws IOException {
+		return getRegistry().getEncompassedLanguages(code);
+	}
+
+	public static String[] normalizeCodes(String[] codes) throws IOException {
+		return getRegistry().normalizeCodes(codes);
+	}
+
+	public static List<String> normalizeCodes(Collection<String> codes) throws IOException {
+		return getRegistry().normalizeCodes(codes);
+	}
+
+	public static List<String> normalizeCodes(Stream<String> codes) throws IOException {
+		return getRegistry().normalizeCodes(codes);
+	}
+
+	public static LanguageTag getLanguageTag(String code) throws IOException {
+		return getRegistry().getLanguageTag(code);
+	}
+
+	public static CompletableFuture<Boolean> reloadRegistry(URL url) throws IOException {
+		return getReloadableRegistry().reloadAsync(url);
+	}
+
+	private static RegistryParser getRegistry() throws IOException {
+		return getReloadableRegistry().get();
+	}
+
+	private static ReloadableRegistry getReloadableRegistry() throws IOException {
+		ReloadableRegistry result = registry;
+		if (result == null) {
+			synchronized (LanguageUtils.class) {
+				result = registry;
+				if (result == null) {
+					result = new ReloadableRegistry(new RegistryParser(REGISTRY_CACHE_SIZE));
+					registry = result;
+				}
+			}
 		}
-		return registry.normalizeCode(code);
+		return result;
 	}
 
 	public static boolean isBiDi(String code) throws SAXException, IOException, ParserConfigurationException {
@@ -121,65 +225,73 @@ public class LanguageUtils {
 
 	public static String[] getLanguageNames() throws SAXException, IOException, ParserConfigurationException {
 		List<Language> list = getCommonLanguages();
-		Iterator<Language> it = list.iterator();
-		List<String> result = new Vector<>();
-		while (it.hasNext()) {
-			result.add(it.next().getDescription());
+		String[] result = new String[list.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = list.get(i).getDescription();
 		}
-		return result.toArray(new String[result.size()]);
+		return result;
 	}
 
 	private static URL resolveResource(String baseName, Locale locale) throws IOException {
+		String language = resourceLanguage(baseName, locale);
+		URL url = LanguageUtils.class.getResource(baseName + (language.isEmpty() ? "" : "_" + language) + ".xml");
+		if (url != null) {
+			return url;
+		}
+		throw new IOException("Language resource not found for " + baseName);
+	}
+
+	// the language of the resource that serves the locale, empty for the default resource
+	private static String resourceLanguage(String baseName, Locale locale) {
 		String language = locale == null ? "" : locale.getLanguage();
 		if (language != null && !language.isEmpty()) {
-			String candidate = baseName + "_" + language + ".xml";
-			URL url = LanguageUtils.class.getResource(candidate);
-			if (url != null) {
-				return url;
+			if (LanguageUtils.class.getResource(baseName + "_" + language + ".xml") != null) {
+				return language;
 			}
-			if (language.length() > 2) {
-				candidate = baseName + "_" + language.substring(0, 2) + ".xml";
-				url = LanguageUtils.class.getResource(candidate);
-				if (url != null) {
-					return url;
-				}
+			if (language.length() > 2
+					&& LanguageUtils.class.getResource(baseName + "_" + language.substring(0, 2) + ".xml") != null) {
+				return language.substring(0, 2);
 			}
 		}
-		URL fallback = LanguageUtils.class.getResource(baseName + ".xml");
-		if (fallback != null) {
-			return fallback;
-		}
-		throw new IOException("Language resource not found for " + baseName);
+		return "";
 	}
 
 	private static LanguageBundle loadExtendedLanguages(Locale locale)
 			throws SAXException, IOException, ParserConfigurationException {
-		String key = localeKey(locale);
-		LanguageBundle bundle = EXTENDED_LANGUAGE_CACHE.get(key);
-		if (bundle != null) {
-			return bundle;
-		}
-		List<Language> list = new Vector<>();
+		return EXTENDED_LANGUAGE_CACHE.get(localeKey(locale), () -> buildExtendedLanguages(locale));
+	}
+
+	private static LanguageBundle buildExtendedLanguages(Locale locale)
+			throws SAXException, IOException, ParserConfigurationException {
+		long start = System.nanoTime();
+		List<Language> list = new ArrayList<>();
 		Set<String> bidi = new TreeSet<>();
-		SAXBuilder builder = new SAXBuilder();
-		URL resource = resolveResource("extendedLanguageList", locale);
-		Element root = builder.build(resource).getRootElement();
-		List<Element> children = root.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element lang = it.next();
-			String code = lang.getAttributeValue("code");
-			String description = lang.getText();
-			list.add(new Language(code, description));
-			if ("true".equals(lang.getAttributeValue("bidi"))) {
-				bidi.add(code);
-			}
+		Collator collator = collator(locale);
+		readLanguages(resolveResource("extendedLanguageList", locale), collator, list, bidi);
+		Collections.sort(list);
+		loaded("extendedLanguageList", locale, start);
+		return new LanguageBundle(resourceLanguage("extendedLanguageList", locale), collator,
+				Collections.unmodifiableList(list), Collections.unmodifiableSet(bidi));
+	}
+
+	private static Collator collator(Locale locale) {
+		return COLLATORS.computeIfAbsent(localeKey(locale),
+				key -> Collator.getInstance(locale == null ? Locale.getDefault() : locale));
+	}
+
+	private static void readLanguages(URL resource, Collator collator, List<Language> list, Set<String> bidi)
+			throws SAXException, IOException, ParserConfigurationException {
+		SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+		try (InputStream stream = resource.openStream()) {
+			parser.parse(stream, new LanguageListHandler(collator, list, bidi));
+		}
+	}
+
+	private static void loaded(String bundle, Locale locale, long start) {
+		LookupMetrics metrics = Metrics.current();
+		if (metrics != null) {
+			metrics.bundleLoaded(bundle, localeKey(locale), System.nanoTime() - start);
 		}
-		Collator collator = Collator.getInstance(locale == null ? Locale.getDefault() : locale);
-		Collections.sort(list, (l1, l2) -> collator.compare(l1.getDescription(), l2.getDescription()));
-		bundle = new LanguageBundle(list, bidi);
-		EXTENDED_LANGUAGE_CACHE.put(key, bundle);
-		return bundle;
 	}
 
 	private static String localeKey(Locale locale) {
@@ -190,13 +302,144 @@ public class LanguageUtils {
 		return language == null ? "" : language;
 	}
 
+	@FunctionalInterface
+	private interface Loader<T> {
+		T load() throws SAXException, IOException, ParserConfigurationException;
+	}
+
+	// Reads never lock: loaded values live in an immutable map that is replaced
+	// on every insertion. Threads asking for a locale that is being loaded wait
+	// for that load instead of repeating it.
+	private static class LocaleCache<T> {
+		private volatile Map<String, T> values = Map.of();
+		private final Map<String, CompletableFuture<T>> loading = new ConcurrentHashMap<>();
+
+		T get(String key, Loader<T> loader) throws SAXException, IOException, ParserConfigurationException {
+			T value = values.get(key);
+			if (value != null) {
+				return value;
+			}
+			CompletableFuture<T> future = new CompletableFuture<>();
+			CompletableFuture<T> running = loading.putIfAbsent(key, future);
+			if (running != null) {
+				return await(running);
+			}
+			try {
+				value = values.get(key);
+				if (value == null) {
+					value = loader.load();
+					publish(key, value);
+				}
+				future.complete(value);
+				return value;
+			} catch (Throwable e) {
+				// waiting threads must be released whatever the loader throws
+				future.completeExceptionally(e);
+				throw e;
+			} finally {
+				loading.remove(key, future);
+			}
+		}
+
+		private synchronized void publish(String key, T value) {
+			Map<String, T> copy = new HashMap<>(values);
+			copy.put(key, value);
+			values = Map.copyOf(copy);
+		}
+
+		private T await(CompletableFuture<T> future)
+				throws SAXException, IOException, ParserConfigurationException {
+			try {
+				return future.join();
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SAXException sax) {
+					throw sax;
+				}
+				if (cause instanceof ParserConfigurationException pce) {
+					throw pce;
+				}
+				if (cause instanceof IOException ioe) {
+					throw ioe;
+				}
+				if (cause instanceof Error error) {
+					throw error;
+				}
+				throw (RuntimeException) cause;
+			}
+		}
+	}
+
+	// reads <lang code="..." bidi="...">description</lang> elements in a single pass
+	private static class LanguageListHandler extends DefaultHandler {
+		private final Collator collator;
+		private final List<Language> list;
+		private final Set<String> bidi;
+		private final StringBuilder text = new StringBuilder();
+		private String code;
+
+		LanguageListHandler(Collator collator, List<Language> list, Set<String> bidi) {
+			this.collator = collator;
+			this.list = list;
+			this.bidi = bidi;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if ("lang".equals(qName)) {
+				code = attributes.getValue("code");
+				text.setLength(0);
+				if (bidi != null && "true".equals(attributes.getValue("bidi"))) {
+					bidi.add(code);
+				}
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (code != null) {
+				text.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if ("lang".equals(qName)) {
+				String description = text.toString();
+				list.add(new Language(code, description, collator));
+				code = null;
+			}
+		}
+	}
+
 	private static class LanguageBundle {
+		private final String resolvedLanguage;
+		private final Collator collator;
 		private final List<Language> languages;
 		private final Set<String> bidiCodes;
+		private final Map<String, Language> byCode;
+		private final Map<String, Language> byCodeIgnoreCase;
+		private final Map<String, Language> byDescription;
+		private final Map<String, Language> byDescriptionIgnoreCase;
+		private final PrefixIndex prefixes;
 
-		LanguageBundle(List<Language> languages, Set<String> bidiCodes) {
+		LanguageBundle(String resolvedLanguage, Collator collator, List<Language> languages, Set<String> bidiCodes) {
+			this.resolvedLanguage = resolvedLanguage;
+			this.collator = collator;
 			this.languages = languages;
 			this.bidiCodes = bidiCodes;
+			byCode = HashMap.newHashMap(languages.size());
+			byCodeIgnoreCase = HashMap.newHashMap(languages.size());
+			byDescription = HashMap.newHashMap(languages.size());
+			byDescriptionIgnoreCase = HashMap.newHashMap(languages.size());
+			// languages are sorted, keep the first match as the linear search did
+			for (Language language : languages) {
+				byCode.putIfAbsent(language.getCode(), language);
+				byCodeIgnoreCase.putIfAbsent(Ascii.toLowerCase(language.getCode()), language);
+				byDescription.putIfAbsent(language.getDescription(), language);
+				byDescriptionIgnoreCase.putIfAbsent(language.getDescription().toLowerCase(Locale.ROOT), language);
+			}
+			prefixes = new PrefixIndex(languages);
 		}
 	}
 }
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+public interface LookupMetrics {
+
+	enum Operation {
+		NORMALIZE, CANONICALIZE, DESCRIBE
+	}
+
+	enum Rejection {
+		MALFORMED, UNKNOWN_LANGUAGE, INVALID_EXTLANG, SUPPRESSED_SCRIPT, UNKNOWN_SCRIPT, UNKNOWN_REGION,
+		UNKNOWN_VARIANT, INVALID_VARIANT_PREFIX, DUPLICATE_SUBTAG, UNSUPPORTED
+	}
+
+	// source is "snapshot" or the URL of the parsed registry text
+	default void registryLoaded(String source, long nanos) {
+		// not recorded
+	}
+
+	// bundle is the base name of the language list, language the locale it was loaded for
+	default void bundleLoaded(String bundle, String language, long nanos) {
+		// not recorded
+	}
+
+	default void lookup(Operation operation, long nanos) {
+		// not recorded
+	}
+
+	default void rejected(Operation operation, Rejection reason) {
+		// not recorded
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class LookupStatistics implements LookupMetrics {
+
+	// bucket i counts latencies from 2^i to 2^(i + 1) - 1 nanoseconds, the last one everything slower
+	public static final int BUCKETS = 40;
+
+	private static final Operation[] OPERATIONS = Operation.values();
+
+	private final LongAdder[] counts = adders(OPERATIONS.length);
+	private final LongAdder[] totals = adders(OPERATIONS.length);
+	private final LongAdder[][] histograms = new LongAdder[OPERATIONS.length][];
+	private final LongAdder[] rejections = adders(Rejection.values().length);
+	private final LongAdder registryLoads = new LongAdder();
+	private final LongAdder registryLoadNanos = new LongAdder();
+	private final LongAdder bundleLoads = new LongAdder();
+	private final LongAdder bundleLoadNanos = new LongAdder();
+
+	public LookupStatistics() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = adders(BUCKETS);
+		}
+	}
+
+	private static LongAdder[] adders(int size) {
+		LongAdder[] result = new LongAdder[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = new LongAdder();
+		}
+		return result;
+	}
+
+	@Override
+	public void registryLoaded(String source, long nanos) {
+		registryLoads.increment();
+		registryLoadNanos.add(nanos);
+	}
+
+	@Override
+	public void bundleLoaded(String bundle, String language, long nanos) {
+		bundleLoads.increment();
+		bundleLoadNanos.add(nanos);
+	}
+
+	@Override
+	public void lookup(Operation operation, long nanos) {
+		int i = operation.ordinal();
+		counts[i].increment();
+		totals[i].add(nanos);
+		int bucket = 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1L));
+		histograms[i][Math.min(bucket, BUCKETS - 1)].increment();
+	}
+
+	@Override
+	public void rejected(Operation operation, Rejection reason) {
+		rejections[reason.ordinal()].increment();
+	}
+
+	public long getCount(Operation operation) {
+		return counts[operation.ordinal()].sum();
+	}
+
+	public long getTotalNanos(Operation operation) {
+		return totals[operation.ordinal()].sum();
+	}
+
+	public long[] getHistogram(Operation operation) {
+		LongAdder[] histogram = histograms[operation.ordinal()];
+		long[] result = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			result[i] = histogram[i].sum();
+		}
+		return result;
+	}
+
+	public long getRejectionCount(Rejection reason) {
+		return rejections[reason.ordinal()].sum();
+	}
+
+	public long getRegistryLoadCount() {
+		return registryLoads.sum();
+	}
+
+	public long getRegistryLoadNanos() {
+		return registryLoadNanos.sum();
+	}
+
+	public long getBundleLoadCount() {
+		return bundleLoads.sum();
+	}
+
+	public long getBundleLoadNanos() {
+		return bundleLoadNanos.sum();
+	}
+}
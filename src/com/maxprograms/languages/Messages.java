@@ -14,43 +14,76 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Messages {
 
-    private static Properties props;
+    // one immutable table per language, loaded on first use
+    private static final Map<String, Map<String, String>> BUNDLES = new ConcurrentHashMap<>();
 
     private Messages() {
         // do not instantiate this class
     }
 
     public static String getString(String key) {
-        String resourceName = "languages";
-        try {
-            if (props == null) {
-                Locale locale = Locale.getDefault();
-                String language = locale.getLanguage();
-                String extension = "_" + language + ".properties";
-                // check if there is a resource for full language code
-                if (Messages.class.getResource(resourceName + extension) == null) {
-                    // if not, check if there is a resource for language only
-                    extension = "_" + language.substring(0, 2) + ".properties";
-                }
-                if (Messages.class.getResource(resourceName + extension) == null) {
-                    // if not, use the default resource
-                    extension = ".properties";
-                }
-                try (InputStream is = Messages.class.getResourceAsStream(resourceName + extension)) {
-                    try (InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
-                        props = new Properties();
-                        props.load(reader);
-                    }
+        return getString(key, Locale.getDefault());
+    }
+
+    public static String getString(String key, Locale locale) {
+        String language = locale == null ? "" : locale.getLanguage();
+        Map<String, String> bundle = BUNDLES.get(language);
+        if (bundle == null) {
+            bundle = load(language);
+            Map<String, String> previous = BUNDLES.putIfAbsent(language, bundle);
+            if (previous != null) {
+                bundle = previous;
+            }
+        }
+        String value = bundle.get(key);
+        return value != null ? value : '!' + key + '!';
+    }
+
+    // the language of the table that serves the locale, empty for the default table
+    static String getLanguage(Locale locale) {
+        return resolve(locale == null ? "" : locale.getLanguage());
+    }
+
+    private static String resolve(String language) {
+        if (language.isEmpty()) {
+            return "";
+        }
+        // check if there is a resource for full language code
+        if (Messages.class.getResource("languages_" + language + ".properties") != null) {
+            return language;
+        }
+        // if not, check if there is a resource for language only
+        if (language.length() > 2
+                && Messages.class.getResource("languages_" + language.substring(0, 2) + ".properties") != null) {
+            return language.substring(0, 2);
+        }
+        // if not, use the default resource
+        return "";
+    }
+
+    private static Map<String, String> load(String language) {
+        String resolved = resolve(language);
+        String extension = resolved.isEmpty() ? ".properties" : "_" + resolved + ".properties";
+        try (InputStream is = Messages.class.getResourceAsStream("languages" + extension)) {
+            try (InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                Properties loaded = new Properties();
+                loaded.load(reader);
+                Map<String, String> bundle = new HashMap<>();
+                for (String name : loaded.stringPropertyNames()) {
+                    bundle.put(name, loaded.getProperty(name));
                 }
+                return Map.copyOf(bundle);
             }
-            return props.getProperty(key, '!' + key + '!');
         } catch (IOException | NullPointerException e) {
-            return '!' + key + '!';
+            return Map.of();
         }
     }
 }
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+public final class Metrics {
+
+	// null while disabled, so instrumented calls cost a single volatile read
+	private static volatile LookupMetrics current;
+
+	private Metrics() {
+		// do not instantiate
+	}
+
+	public static void enable(LookupMetrics metrics) {
+		current = metrics;
+	}
+
+	public static void disable() {
+		current = null;
+	}
+
+	static LookupMetrics current() {
+		return current;
+	}
+}
@@ -15,36 +15,156 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class OfficeParser {
-    
-    private Map<String, String> languageMap;
-    
+
+    private static volatile Index index;
+
+    private final Index shared;
+
     public OfficeParser() throws IOException {
-        languageMap = new HashMap<>();        
-        URL url = RegistryParser.class.getResource("Office.txt");
-        loadMap(url);
+        shared = getIndex();
     }
 
     public String getLCID(String lang) {
-        return languageMap.containsKey(lang) ? languageMap.get(lang) : "";
+        int i = shared.find(lang, lang.length());
+        return i >= 0 && shared.tags[i].equals(lang) ? shared.lcidStrings[i] : "";
     }
 
     public boolean isSupported(String lang) {
-        return !getLCID(lang).isEmpty(); 
+        return !getLCID(lang).isEmpty();
+    }
+
+    // ignores case, accepts '_' as separator and drops trailing subtags until a tag matches
+    public int findLCID(String tag) {
+        int length = tag.length();
+        while (length > 0) {
+            int i = shared.find(tag, length);
+            if (i >= 0) {
+                return shared.lcids[i];
+            }
+            length = lastSeparator(tag, length);
+        }
+        return -1;
+    }
+
+    public String getTag(int lcid) {
+        int i = Arrays.binarySearch(shared.sortedLcids, lcid);
+        return i >= 0 ? shared.lcidTags[i] : null;
+    }
+
+    private static int lastSeparator(String tag, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            char c = tag.charAt(i);
+            if (c == '-' || c == '_') {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static Index getIndex() throws IOException {
+        Index result = index;
+        if (result == null) {
+            synchronized (OfficeParser.class) {
+                result = index;
+                if (result == null) {
+                    result = new Index(OfficeParser.class.getResource("Office.txt"));
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static char fold(char c) {
+        return c == '_' ? '-' : Ascii.toLower(c);
+    }
+
+    // compares a tag with the first length characters of a query, ignoring case
+    private static int compare(String tag, CharSequence query, int length) {
+        int common = Math.min(tag.length(), length);
+        for (int i = 0; i < common; i++) {
+            int difference = fold(tag.charAt(i)) - fold(query.charAt(i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return tag.length() - length;
     }
 
-    private void loadMap(URL url) throws IOException {
-        try (InputStream input = url.openStream()) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_16LE))) {
-                String line = "";
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split("\\t");
-                    languageMap.put(parts[1], parts[0]);
+    private static class Index {
+
+        // tags sorted ignoring case, with their LCID
+        private final String[] tags;
+        private final int[] lcids;
+        private final String[] lcidStrings;
+        // LCIDs in numeric order, with their tag
+        private final int[] sortedLcids;
+        private final String[] lcidTags;
+
+        Index(URL url) throws IOException {
+            Map<String, String> byTag = new HashMap<>();
+            List<String[]> rows = new ArrayList<>();
+            try (InputStream input = url.openStream()) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(input, StandardCharsets.UTF_16LE))) {
+                    String line = "";
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                            // byte order mark
+                            line = line.substring(1);
+                        }
+                        int tab = line.indexOf('\t');
+                        if (tab == -1) {
+                            continue;
+                        }
+                        String lcid = line.substring(0, tab);
+                        String tag = line.substring(tab + 1);
+                        // a tag listed twice keeps its last LCID
+                        byTag.put(tag, lcid);
+                        rows.add(new String[] { lcid, tag });
+                    }
+                }
+            }
+            tags = byTag.keySet().toArray(new String[0]);
+            Arrays.sort(tags, (a, b) -> compare(a, b, b.length()));
+            lcids = new int[tags.length];
+            lcidStrings = new String[tags.length];
+            for (int i = 0; i < tags.length; i++) {
+                lcidStrings[i] = byTag.get(tags[i]);
+                lcids[i] = Integer.parseInt(lcidStrings[i]);
+            }
+            rows.sort(Comparator.comparingInt(row -> Integer.parseInt(row[0])));
+            sortedLcids = new int[rows.size()];
+            lcidTags = new String[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                sortedLcids[i] = Integer.parseInt(rows.get(i)[0]);
+                lcidTags[i] = rows.get(i)[1];
+            }
+        }
+
+        int find(CharSequence query, int length) {
+            int low = 0;
+            int high = tags.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(tags[middle], query, length);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
                 }
             }
+            return -1;
         }
     }
 }
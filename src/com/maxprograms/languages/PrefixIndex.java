@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class PrefixIndex {
+
+	// case and accent folding for Latin letters, so "fra" finds "Français"
+	private static final char[] FOLDED = new char[0x250];
+
+	static {
+		for (char c = 0; c < FOLDED.length; c++) {
+			String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+			FOLDED[c] = Character.toLowerCase(decomposed.charAt(0));
+		}
+	}
+
+	private final List<Language> languages;
+	// folded codes and descriptions in list order
+	private final String[] codes;
+	private final String[] descriptions;
+	// the same keys in sorted order, to count the matches of a prefix
+	private final String[] keys;
+
+	PrefixIndex(List<Language> languages) {
+		this.languages = languages;
+		int size = languages.size();
+		codes = new String[size];
+		descriptions = new String[size];
+		keys = new String[size * 2];
+		for (int i = 0; i < size; i++) {
+			codes[i] = fold(languages.get(i).getCode());
+			descriptions[i] = fold(languages.get(i).getDescription());
+			keys[2 * i] = codes[i];
+			keys[2 * i + 1] = descriptions[i];
+		}
+		Arrays.sort(keys);
+	}
+
+	static char fold(char c) {
+		return c < FOLDED.length ? FOLDED[c] : Character.toLowerCase(c);
+	}
+
+	private static String fold(String text) {
+		char[] chars = new char[text.length()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = fold(text.charAt(i));
+		}
+		return new String(chars);
+	}
+
+	// languages whose code or description starts with the prefix, in list order
+	List<Language> search(CharSequence prefix, int limit) {
+		// the sorted keys tell how many codes and descriptions match, the list is
+		// then scanned in order until the limit or the last match is reached; the
+		// only allocation per query is the result list
+		int remaining = bound(prefix, true) - bound(prefix, false);
+		List<Language> result = new ArrayList<>(Math.max(0, Math.min(limit, remaining)));
+		for (int i = 0; i < codes.length && remaining > 0 && result.size() < limit; i++) {
+			boolean code = compare(codes[i], prefix) == 0;
+			boolean description = compare(descriptions[i], prefix) == 0;
+			if (code || description) {
+				// a language matching both by code and by description is only taken once
+				result.add(languages.get(i));
+				remaining -= code && description ? 2 : 1;
+			}
+		}
+		return result;
+	}
+
+	// first key that does not sort before the prefix, or after it when upper is true
+	private int bound(CharSequence prefix, boolean upper) {
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compare(keys[middle], prefix);
+			if (comparison < 0 || (upper && comparison == 0)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	// compares a key with a prefix, keys that start with the prefix compare as equal
+	private static int compare(String key, CharSequence prefix) {
+		int length = Math.min(key.length(), prefix.length());
+		for (int i = 0; i < length; i++) {
+			int difference = key.charAt(i) - fold(prefix.charAt(i));
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return key.length() < prefix.length() ? -1 : 0;
+	}
+}
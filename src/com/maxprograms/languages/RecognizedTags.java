@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+final class RecognizedTags {
+
+	// Normalized tags found by hashing the input while ignoring ASCII case, so
+	// text held in parser buffers can be looked up without building a String.
+	// Slots are written without locking; Strings are immutable, and a slot read
+	// before a write is only a miss.
+	private static final int PROBES = 4;
+
+	private final String[] slots;
+	private final int mask;
+
+	RecognizedTags(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+		slots = new String[size];
+		mask = size - 1;
+	}
+
+	void add(String tag) {
+		int home = hash(tag, 0, tag.length()) & mask;
+		for (int i = 0; i < PROBES; i++) {
+			int slot = (home + i) & mask;
+			if (slots[slot] == null || slots[slot].equals(tag)) {
+				slots[slot] = tag;
+				return;
+			}
+		}
+		slots[home] = tag;
+	}
+
+	void copyTo(RecognizedTags target, Predicate<String> filter) {
+		for (String tag : slots) {
+			if (tag != null && filter.test(tag)) {
+				target.add(tag);
+			}
+		}
+	}
+
+	String find(CharSequence text, int offset, int length) {
+		int home = hash(text, offset, length) & mask;
+		for (int i = 0; i < PROBES; i++) {
+			String tag = slots[(home + i) & mask];
+			if (tag != null && matches(tag, text, offset, length)) {
+				return tag;
+			}
+		}
+		return null;
+	}
+
+	String find(char[] text, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + fold(text[i]);
+		}
+		int home = spread(hash) & mask;
+		for (int i = 0; i < PROBES; i++) {
+			String tag = slots[(home + i) & mask];
+			if (tag != null && tag.length() == length && matches(tag, text, offset)) {
+				return tag;
+			}
+		}
+		return null;
+	}
+
+	String find(byte[] text, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + fold((char) (text[i] & 0xFF));
+		}
+		int home = spread(hash) & mask;
+		for (int i = 0; i < PROBES; i++) {
+			String tag = slots[(home + i) & mask];
+			if (tag != null && tag.length() == length && matches(tag, text, offset)) {
+				return tag;
+			}
+		}
+		return null;
+	}
+
+	String find(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			return find(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		}
+		int start = buffer.position();
+		int length = buffer.remaining();
+		int hash = 0;
+		for (int i = start; i < start + length; i++) {
+			hash = 31 * hash + fold((char) (buffer.get(i) & 0xFF));
+		}
+		int home = spread(hash) & mask;
+		for (int i = 0; i < PROBES; i++) {
+			String tag = slots[(home + i) & mask];
+			if (tag != null && tag.length() == length && matches(tag, buffer, start)) {
+				return tag;
+			}
+		}
+		return null;
+	}
+
+	private static int hash(CharSequence text, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + fold(text.charAt(i));
+		}
+		return spread(hash);
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static char fold(char c) {
+		return Ascii.toLower(c);
+	}
+
+	private static boolean matches(String tag, CharSequence text, int offset, int length) {
+		if (tag.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (fold(tag.charAt(i)) != fold(text.charAt(offset + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(String tag, char[] text, int offset) {
+		for (int i = 0; i < tag.length(); i++) {
+			if (fold(tag.charAt(i)) != fold(text[offset + i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(String tag, byte[] text, int offset) {
+		for (int i = 0; i < tag.length(); i++) {
+			if (fold(tag.charAt(i)) != fold((char) (text[offset + i] & 0xFF))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(String tag, ByteBuffer buffer, int offset) {
+		for (int i = 0; i < tag.length(); i++) {
+			if (fold(tag.charAt(i)) != fold((char) (buffer.get(offset + i) & 0xFF))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -14,34 +14,60 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class RegistryParser {
 
-	private List<RegistryEntry> entries;
-	private Map<String, Language> languages;
-	private Map<String, Region> regions;
-	private Map<String, Script> scripts;
-	private Map<String, Variant> variants;
+	private static final int PARALLEL_THRESHOLD = 2048;
+	private static final int RECOGNIZED_TAGS = 1024;
+	private static final ThreadLocal<TagTokenizer> TOKENIZER = ThreadLocal.withInitial(TagTokenizer::new);
 
-	// Private-use ranges
-	private String privateLanguageStart;
-	private String privateLanguageEnd;
-	private String privateScriptStart;
-	private String privateScriptEnd;
-	private String[][] privateRegionRanges;
+	private String registryDate;
+	private final TagCache cache;
+	private final RecognizedTags recognized;
+	private StringPool pool;
+	private SubtagTable languages;
+	private SubtagTable extlangs;
+	private SubtagTable scripts;
+	private SubtagTable regions;
+	private SubtagTable variants;
+	private long[][][] variantPrefixes;
+	private TagTokenizer.SubtagType[][][] variantPrefixTypes;
+	// grandfathered and redundant tags with a Preferred-Value, in lower case
+	private Map<String, String> tagReplacements;
+	private int longestReplacedTag;
+	private int[] macrolanguages;
+	private int[] memberStarts;
+	private int[] members;
+
+	// Private-use ranges, as packed subtags
+	private long privateLanguageStart;
+	private long privateLanguageEnd = -1L;
+	private long privateScriptStart;
+	private long privateScriptEnd = -1L;
+	private long[] privateRegionRanges;
 
 	private void parseRegistry(URL url) throws IOException {
+		List<RegistryEntry> entries = new ArrayList<>();
 		try (InputStream input = url.openStream()) {
 			try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
 				String line = "";
-				entries = new ArrayList<>();
 				StringBuilder buffer = new StringBuilder();
 				while ((line = reader.readLine()) != null) {
 					if (line.trim().equals("%%")) {
@@ -54,354 +80,1079 @@ public class RegistryParser {
 				}
 			}
 		}
-		languages = new HashMap<>();
-		regions = new HashMap<>();
-		scripts = new HashMap<>();
-		variants = new HashMap<>();
-		privateRegionRanges = new String[0][];
-		List<String[]> regionRangesList = new ArrayList<>();
+		StringPool.Builder strings = new StringPool.Builder();
+		SubtagTable.Builder languageTable = new SubtagTable.Builder();
+		SubtagTable.Builder extlangTable = new SubtagTable.Builder();
+		SubtagTable.Builder scriptTable = new SubtagTable.Builder();
+		SubtagTable.Builder regionTable = new SubtagTable.Builder();
+		SubtagTable.Builder variantTable = new SubtagTable.Builder();
+		tagReplacements = new HashMap<>();
+		Map<String, String> memberships = new HashMap<>();
+		List<Long> regionRangesList = new ArrayList<>();
 		Iterator<RegistryEntry> it = entries.iterator();
 		while (it.hasNext()) {
 			RegistryEntry entry = it.next();
 			String type = entry.getType();
 			if (type == null) {
+				if (entry.getTypes().contains("File-Date")) {
+					registryDate = entry.get("File-Date");
+				}
+				continue;
+			}
+			String preferredValue = entry.get("Preferred-Value");
+			if (type.equals("grandfathered") || type.equals("redundant")) {
+				String tag = entry.get("Tag");
+				if (tag != null && preferredValue != null) {
+					tagReplacements.put(Ascii.toLowerCase(tag), preferredValue);
+				}
 				continue;
 			}
+			String subtag = entry.getSubtag();
+			if (subtag == null) {
+				continue;
+			}
+			int preferred = preferredValue == null ? -1 : strings.add(preferredValue);
 			if (type.equals("language")) {
 				String description = entry.getDescription();
-				String subtag = entry.getSubtag();
-				if (subtag != null && subtag.contains("..")) {
+				if (subtag.contains("..")) {
 					// Private-use range like "qaa..qtz"
 					String[] range = subtag.split("\\.\\.");
 					if (range.length == 2) {
-						privateLanguageStart = range[0].toLowerCase();
-						privateLanguageEnd = range[1].toLowerCase();
+						privateLanguageStart = SubtagTable.pack(range[0]);
+						privateLanguageEnd = SubtagTable.pack(range[1]);
 					}
 					continue;
 				}
-				if (subtag != null) {
-					if (description.indexOf('|') != -1) {
-						// trim and use only the first name
-						description = description.substring(0, description.indexOf('|') - 1);
-					}
-					if (subtag.equals("el")) {
-						// official description is "Modern Greek (1453-)", use a familiar name
-						description = "Greek";
-					}
-					description = description.replaceAll("\\(.*\\)", "").trim();
-					Language lang = new Language(subtag, description.trim());
-					String suppressedScript = entry.get("Suppress-Script");
-					if (suppressedScript != null) {
-						lang.setSuppressedScript(suppressedScript);
-					}
-					languages.put(subtag, lang);
+				if (description.indexOf('|') != -1) {
+					// trim and use only the first name
+					description = description.substring(0, description.indexOf('|') - 1);
+				}
+				if (subtag.equals("el")) {
+					// official description is "Modern Greek (1453-)", use a familiar name
+					description = "Greek";
+				}
+				description = description.replaceAll("\\(.*\\)", "").trim();
+				String macrolanguage = entry.get("Macrolanguage");
+				if (macrolanguage != null) {
+					memberships.put(subtag, macrolanguage);
+				}
+				String suppressedScript = entry.get("Suppress-Script");
+				int suppressed = suppressedScript == null ? 0 : (int) SubtagTable.pack(suppressedScript);
+				languageTable.add(SubtagTable.pack(subtag), strings.add(subtag), strings.add(description.trim()),
+						suppressed, preferred);
+			}
+			if (type.equals("extlang")) {
+				String prefix = entry.get("Prefix");
+				if (prefix != null) {
+					extlangTable.add(SubtagTable.pack(subtag), strings.add(Ascii.toLowerCase(subtag)),
+							strings.add(entry.getDescription()), (int) SubtagTable.pack(prefix), preferred);
 				}
 			}
 			if (type.equals("region")) {
 				String description = entry.getDescription();
-				String subtag = entry.getSubtag();
-				if (subtag != null && subtag.contains("..")) {
+				if (subtag.contains("..")) {
 					// Private-use range like "QM..QZ" or "XA..XZ"
 					String[] range = subtag.split("\\.\\.");
 					if (range.length == 2) {
-						regionRangesList.add(new String[] { range[0].toUpperCase(), range[1].toUpperCase() });
+						regionRangesList.add(SubtagTable.pack(range[0]));
+						regionRangesList.add(SubtagTable.pack(range[1]));
 					}
 					continue;
 				}
-				if (subtag != null) {
-					regions.put(subtag, new Region(subtag, description.trim()));
-				}
+				// registered private use regions such as AA and ZZ are flagged in the extra column
+				int privateUse = description.trim().equals("Private use") ? 1 : 0;
+				regionTable.add(SubtagTable.pack(subtag), strings.add(subtag), strings.add(description.trim()),
+						privateUse, preferred);
 			}
 			if (type.equals("script")) {
 				String description = entry.getDescription();
 				description = description.replace('(', '[');
 				description = description.replace(')', ']');
-				String subtag = entry.getSubtag();
-				if (subtag != null && subtag.contains("..")) {
+				if (subtag.contains("..")) {
 					// Private-use range like "Qaaa..Qabx"
 					String[] range = subtag.split("\\.\\.");
 					if (range.length == 2) {
-						privateScriptStart = range[0].substring(0, 1).toUpperCase()
-								+ range[0].substring(1).toLowerCase();
-						privateScriptEnd = range[1].substring(0, 1).toUpperCase() + range[1].substring(1).toLowerCase();
+						privateScriptStart = SubtagTable.pack(range[0]);
+						privateScriptEnd = SubtagTable.pack(range[1]);
 					}
 					continue;
 				}
-				if (subtag != null) {
-					scripts.put(subtag, new Script(subtag, description.trim()));
-				}
+				scriptTable.add(SubtagTable.pack(subtag), strings.add(subtag), strings.add(description.trim()), 0,
+						preferred);
 			}
 			if (type.equals("variant")) {
 				String description = entry.getDescription();
 				description = description.replace('(', '[');
 				description = description.replace(')', ']');
-				String subtag = entry.getSubtag();
 				String prefix = entry.get("Prefix");
-				if (subtag != null) {
-					variants.put(subtag, new Variant(subtag, description.trim(), prefix));
-				}
+				variantTable.add(SubtagTable.pack(subtag), strings.add(subtag), strings.add(description.trim()),
+						prefix == null ? -1 : strings.add(prefix), preferred);
 			}
 		}
-		privateRegionRanges = regionRangesList.toArray(new String[0][]);
+		pool = strings.build();
+		languages = languageTable.build();
+		extlangs = extlangTable.build();
+		scripts = scriptTable.build();
+		regions = regionTable.build();
+		variants = variantTable.build();
+		privateRegionRanges = new long[regionRangesList.size()];
+		for (int i = 0; i < privateRegionRanges.length; i++) {
+			privateRegionRanges[i] = regionRangesList.get(i);
+		}
+		macrolanguages = new int[languages.size()];
+		Arrays.fill(macrolanguages, SubtagTable.NOT_FOUND);
+		for (Map.Entry<String, String> membership : memberships.entrySet()) {
+			int language = languages.indexOf(SubtagTable.pack(membership.getKey()));
+			if (language != SubtagTable.NOT_FOUND) {
+				macrolanguages[language] = languages.indexOf(SubtagTable.pack(membership.getValue()));
+			}
+		}
+		compileVariantPrefixes();
+		measureReplacements();
+		indexMembers();
 	}
 
-	private boolean isPrivateLanguage(String code) {
-		if (privateLanguageStart == null || privateLanguageEnd == null) {
-			return false;
+	private void indexMembers() {
+		// reverse of macrolanguages: members of language i are members[memberStarts[i]..memberStarts[i + 1]]
+		memberStarts = new int[languages.size() + 1];
+		for (int macrolanguage : macrolanguages) {
+			if (macrolanguage != SubtagTable.NOT_FOUND) {
+				memberStarts[macrolanguage + 1]++;
+			}
+		}
+		for (int i = 0; i < languages.size(); i++) {
+			memberStarts[i + 1] += memberStarts[i];
+		}
+		members = new int[memberStarts[languages.size()]];
+		int[] next = Arrays.copyOf(memberStarts, languages.size());
+		for (int i = 0; i < macrolanguages.length; i++) {
+			if (macrolanguages[i] != SubtagTable.NOT_FOUND) {
+				members[next[macrolanguages[i]]++] = i;
+			}
 		}
-		String lowerCode = code.toLowerCase();
-		return lowerCode.compareTo(privateLanguageStart) >= 0 && lowerCode.compareTo(privateLanguageEnd) <= 0;
 	}
 
-	private boolean isPrivateScript(String code) {
-		if (privateScriptStart == null || privateScriptEnd == null) {
-			return false;
+	private void measureReplacements() {
+		longestReplacedTag = 0;
+		for (String tag : tagReplacements.keySet()) {
+			longestReplacedTag = Math.max(longestReplacedTag, tag.length());
+		}
+	}
+
+	private void compileVariantPrefixes() {
+		// several Prefix fields are joined with " | " by RegistryEntry; each
+		// Prefix is kept as the types and keys of its subtags
+		TagTokenizer tokenizer = new TagTokenizer();
+		variantPrefixes = new long[variants.size()][][];
+		variantPrefixTypes = new TagTokenizer.SubtagType[variants.size()][][];
+		for (int i = 0; i < variants.size(); i++) {
+			int ref = variants.extra(i);
+			if (ref == -1) {
+				variantPrefixes[i] = new long[0][];
+				variantPrefixTypes[i] = new TagTokenizer.SubtagType[0][];
+				continue;
+			}
+			List<long[]> keys = new ArrayList<>();
+			List<TagTokenizer.SubtagType[]> types = new ArrayList<>();
+			for (String prefix : pool.get(ref).split("\\|")) {
+				if (!tokenizer.tokenize(prefix.trim())) {
+					continue;
+				}
+				long[] prefixKeys = new long[tokenizer.count()];
+				TagTokenizer.SubtagType[] prefixTypes = new TagTokenizer.SubtagType[tokenizer.count()];
+				for (int j = 0; j < tokenizer.count(); j++) {
+					prefixKeys[j] = tokenizer.key(j);
+					prefixTypes[j] = tokenizer.type(j);
+				}
+				keys.add(prefixKeys);
+				types.add(prefixTypes);
+			}
+			variantPrefixes[i] = keys.toArray(new long[0][]);
+			variantPrefixTypes[i] = types.toArray(new TagTokenizer.SubtagType[0][]);
 		}
-		String normalizedCode = code.substring(0, 1).toUpperCase() + code.substring(1).toLowerCase();
-		return normalizedCode.compareTo(privateScriptStart) >= 0 && normalizedCode.compareTo(privateScriptEnd) <= 0;
 	}
 
-	private boolean isPrivateRegion(String code) {
-		String upperCode = code.toUpperCase();
-		for (String[] range : privateRegionRanges) {
-			if (upperCode.compareTo(range[0]) >= 0 && upperCode.compareTo(range[1]) <= 0) {
+	private boolean isPrivateLanguage(long key) {
+		return key >= privateLanguageStart && key <= privateLanguageEnd;
+	}
+
+	private boolean isPrivateScript(long key) {
+		return key >= privateScriptStart && key <= privateScriptEnd;
+	}
+
+	private boolean isPrivateRegion(long key) {
+		for (int i = 0; i < privateRegionRanges.length; i += 2) {
+			if (key >= privateRegionRanges[i] && key <= privateRegionRanges[i + 1]) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	public String getRegistryDate() {
-		Iterator<RegistryEntry> it = entries.iterator();
-		while (it.hasNext()) {
-			RegistryEntry entry = it.next();
-			Set<String> set = entry.getTypes();
-			if (set.contains("File-Date")) {
-				return entry.get("File-Date");
+	void writeSnapshot(RegistrySnapshot.Writer writer) throws IOException {
+		writer.writeString(registryDate);
+		writer.writeString(pool.getText());
+		writer.writeLongs(new long[] { privateLanguageStart, privateLanguageEnd, privateScriptStart, privateScriptEnd });
+		writer.writeLongs(privateRegionRanges);
+		languages.write(writer);
+		extlangs.write(writer);
+		scripts.write(writer);
+		regions.write(writer);
+		variants.write(writer);
+		writer.writeInt(tagReplacements.size());
+		for (Map.Entry<String, String> replacement : tagReplacements.entrySet()) {
+			writer.writeString(replacement.getKey());
+			writer.writeString(replacement.getValue());
+		}
+		writer.writeInts(macrolanguages);
+	}
+
+	private void loadSnapshot(RegistrySnapshot.Reader reader) {
+		registryDate = reader.readString();
+		pool = new StringPool(reader.readString());
+		long[] ranges = reader.readLongs();
+		privateLanguageStart = ranges[0];
+		privateLanguageEnd = ranges[1];
+		privateScriptStart = ranges[2];
+		privateScriptEnd = ranges[3];
+		privateRegionRanges = reader.readLongs();
+		languages = SubtagTable.read(reader);
+		extlangs = SubtagTable.read(reader);
+		scripts = SubtagTable.read(reader);
+		regions = SubtagTable.read(reader);
+		variants = SubtagTable.read(reader);
+		int count = reader.readInt();
+		tagReplacements = HashMap.newHashMap(count);
+		for (int i = 0; i < count; i++) {
+			tagReplacements.put(reader.readString(), reader.readString());
+		}
+		macrolanguages = reader.readInts();
+		compileVariantPrefixes();
+		measureReplacements();
+		indexMembers();
+	}
+
+	// keys of the subtags whose records differ from those of the previous registry,
+	// null when a private use range changed and any tag may be affected
+	Set<Long> changedSubtags(RegistryParser previous) {
+		if (privateLanguageStart != previous.privateLanguageStart || privateLanguageEnd != previous.privateLanguageEnd
+				|| privateScriptStart != previous.privateScriptStart || privateScriptEnd != previous.privateScriptEnd
+				|| !Arrays.equals(privateRegionRanges, previous.privateRegionRanges)) {
+			return null;
+		}
+		Set<Long> changed = new HashSet<>();
+		diff(languages, previous.languages, previous.pool, false, changed);
+		diff(extlangs, previous.extlangs, previous.pool, false, changed);
+		diff(scripts, previous.scripts, previous.pool, false, changed);
+		diff(regions, previous.regions, previous.pool, false, changed);
+		diff(variants, previous.variants, previous.pool, true, changed);
+		Set<String> tags = new HashSet<>(tagReplacements.keySet());
+		tags.addAll(previous.tagReplacements.keySet());
+		for (String tag : tags) {
+			if (!Objects.equals(tagReplacements.get(tag), previous.tagReplacements.get(tag))) {
+				for (String subtag : tag.split("-")) {
+					changed.add(SubtagTable.pack(subtag));
+				}
 			}
 		}
-		return null;
+		return changed;
+	}
+
+	private void diff(SubtagTable current, SubtagTable previous, StringPool previousPool, boolean prefixRefs,
+			Set<Long> changed) {
+		int i = 0;
+		int j = 0;
+		while (i < current.size() || j < previous.size()) {
+			long key = i < current.size() ? current.key(i) : Long.MAX_VALUE;
+			long previousKey = j < previous.size() ? previous.key(j) : Long.MAX_VALUE;
+			if (key < previousKey) {
+				changed.add(key);
+				i++;
+			} else if (previousKey < key) {
+				changed.add(previousKey);
+				j++;
+			} else {
+				boolean same = sameString(current.code(i), previous.code(j), previousPool)
+						&& sameString(current.description(i), previous.description(j), previousPool)
+						&& sameString(current.preferred(i), previous.preferred(j), previousPool)
+						&& (prefixRefs ? sameString(current.extra(i), previous.extra(j), previousPool)
+								: current.extra(i) == previous.extra(j));
+				if (!same) {
+					changed.add(key);
+				}
+				i++;
+				j++;
+			}
+		}
+	}
+
+	private boolean sameString(int ref, int previousRef, StringPool previousPool) {
+		if (ref == -1 || previousRef == -1) {
+			return ref == previousRef;
+		}
+		return pool.get(ref).equals(previousPool.get(previousRef));
+	}
+
+	void retainCache(RegistryParser previous, Set<Long> changed) {
+		if (changed == null) {
+			return;
+		}
+		Predicate<String> unchanged = tag -> !containsAny(tag, changed);
+		previous.recognized.copyTo(recognized, unchanged);
+		if (cache != null && previous.cache != null) {
+			previous.cache.copyTo(cache, unchanged, (tag, canonical) -> !reachesAny(tag, canonical, changed));
+		}
+	}
+
+	// a canonical form also depends on the Preferred-Value of a grandfathered or
+	// redundant tag and on the records of the languages that replace its subtags,
+	// all of which appear either in the replacement or in the canonical form itself
+	private boolean reachesAny(String tag, String canonical, Set<Long> keys) {
+		if (containsAny(canonical, keys)) {
+			return true;
+		}
+		String replacement = replacement(tag);
+		return replacement != null && containsAny(replacement, keys);
+	}
+
+	private static boolean containsAny(String tag, Set<Long> keys) {
+		int start = 0;
+		for (int i = 0; i <= tag.length(); i++) {
+			if (i == tag.length() || tag.charAt(i) == '-') {
+				if (keys.contains(SubtagTable.pack(tag, start, i - start))) {
+					return true;
+				}
+				start = i + 1;
+			}
+		}
+		return false;
+	}
+
+	public String getRegistryDate() {
+		return registryDate;
 	}
 
 	public RegistryParser(URL url) throws IOException {
+		this(url, 0);
+	}
+
+	public RegistryParser(URL url, int cacheSize) throws IOException {
+		long start = System.nanoTime();
 		parseRegistry(url);
+		cache = cacheSize > 0 ? new TagCache(cacheSize) : null;
+		recognized = new RecognizedTags(Math.max(cacheSize, RECOGNIZED_TAGS));
+		loaded(url.toString(), start);
 	}
 
 	public RegistryParser() throws IOException {
+		this(0);
+	}
+
+	public RegistryParser(int cacheSize) throws IOException {
+		long start = System.nanoTime();
+		cache = cacheSize > 0 ? new TagCache(cacheSize) : null;
+		recognized = new RecognizedTags(Math.max(cacheSize, RECOGNIZED_TAGS));
+		URL snapshot = RegistryParser.class.getResource(RegistrySnapshot.RESOURCE);
+		if (snapshot != null) {
+			try {
+				loadSnapshot(RegistrySnapshot.Reader.open(snapshot));
+				loaded("snapshot", start);
+				return;
+			} catch (IOException | RuntimeException e) {
+				// damaged or outdated snapshot, parse the text registry instead
+			}
+		}
 		URL url = RegistryParser.class.getResource("language-subtag-registry.txt");
 		parseRegistry(url);
+		loaded(url.toString(), start);
+	}
+
+	private static void loaded(String source, long start) {
+		LookupMetrics metrics = Metrics.current();
+		if (metrics != null) {
+			metrics.registryLoaded(source, System.nanoTime() - start);
+		}
+	}
+
+	private String record(LookupMetrics metrics, LookupMetrics.Operation operation, String tag, long start,
+			String result) {
+		metrics.lookup(operation, System.nanoTime() - start);
+		if (result.isEmpty()) {
+			TagTokenizer tokenizer = TOKENIZER.get();
+			Failure failure = tokenizer.tokenize(tag) ? check(tokenizer)
+					: new Failure(ValidationResult.Reason.MALFORMED, -1);
+			metrics.rejected(operation,
+					failure == null ? LookupMetrics.Rejection.UNSUPPORTED : rejection(failure.reason()));
+		}
+		return result;
+	}
+
+	private static LookupMetrics.Rejection rejection(ValidationResult.Reason reason) {
+		switch (reason) {
+			case MALFORMED:
+				return LookupMetrics.Rejection.MALFORMED;
+			case UNKNOWN_LANGUAGE:
+				return LookupMetrics.Rejection.UNKNOWN_LANGUAGE;
+			case INVALID_EXTLANG:
+				return LookupMetrics.Rejection.INVALID_EXTLANG;
+			case SUPPRESSED_SCRIPT:
+				return LookupMetrics.Rejection.SUPPRESSED_SCRIPT;
+			case UNKNOWN_SCRIPT:
+				return LookupMetrics.Rejection.UNKNOWN_SCRIPT;
+			case UNKNOWN_REGION:
+				return LookupMetrics.Rejection.UNKNOWN_REGION;
+			case UNKNOWN_VARIANT:
+				return LookupMetrics.Rejection.UNKNOWN_VARIANT;
+			case INVALID_VARIANT_PREFIX:
+				return LookupMetrics.Rejection.INVALID_VARIANT_PREFIX;
+			case DUPLICATE_SUBTAG:
+				return LookupMetrics.Rejection.DUPLICATE_SUBTAG;
+			default:
+				return LookupMetrics.Rejection.UNSUPPORTED;
+		}
+	}
+
+	// the first subtag that normalizeCode rejects and why, null when the tag is valid
+	private Failure check(TagTokenizer tokenizer) {
+		int lang = SubtagTable.NOT_FOUND;
+		long singletons = 0L;
+		for (int i = 0; i < tokenizer.count(); i++) {
+			long key = tokenizer.key(i);
+			int index;
+			switch (tokenizer.type(i)) {
+				case LANGUAGE:
+					lang = languages.indexOf(key);
+					if (lang == SubtagTable.NOT_FOUND && !isPrivateLanguage(key)) {
+						return new Failure(ValidationResult.Reason.UNKNOWN_LANGUAGE, i);
+					}
+					break;
+				case EXTLANG:
+					index = extlangs.indexOf(key);
+					if (i != 1 || index == SubtagTable.NOT_FOUND || extlangs.extra(index) != tokenizer.key(0)) {
+						return new Failure(ValidationResult.Reason.INVALID_EXTLANG, i);
+					}
+					break;
+				case SCRIPT:
+					if (lang != SubtagTable.NOT_FOUND && key == languages.extra(lang)) {
+						return new Failure(ValidationResult.Reason.SUPPRESSED_SCRIPT, i);
+					}
+					if (scripts.indexOf(key) == SubtagTable.NOT_FOUND && !isPrivateScript(key)) {
+						return new Failure(ValidationResult.Reason.UNKNOWN_SCRIPT, i);
+					}
+					break;
+				case REGION:
+					if (regions.indexOf(key) == SubtagTable.NOT_FOUND && !isPrivateRegion(key)) {
+						return new Failure(ValidationResult.Reason.UNKNOWN_REGION, i);
+					}
+					break;
+				case VARIANT:
+					if (variants.indexOf(key) == SubtagTable.NOT_FOUND) {
+						return new Failure(ValidationResult.Reason.UNKNOWN_VARIANT, i);
+					}
+					if (containsKey(tokenizer, i, TagTokenizer.SubtagType.VARIANT, key)) {
+						return new Failure(ValidationResult.Reason.DUPLICATE_SUBTAG, i);
+					}
+					if (getVariant(tokenizer, i) == SubtagTable.NOT_FOUND) {
+						return new Failure(ValidationResult.Reason.INVALID_VARIANT_PREFIX, i);
+					}
+					break;
+				case SINGLETON:
+					long bit = 1L << key;
+					if ((singletons & bit) != 0) {
+						return new Failure(ValidationResult.Reason.DUPLICATE_SUBTAG, i);
+					}
+					singletons |= bit;
+					break;
+				default:
+					break;
+			}
+		}
+		return null;
+	}
+
+	private record Failure(ValidationResult.Reason reason, int subtag) {
+	}
+
+	public ValidationResult validate(String tag) {
+		// grandfathered and redundant tags take the canonical form of their Preferred-Value,
+		// other tags are only tokenized once
+		String replacement = replacement(tag);
+		String canonical = replacement == null ? "" : canonicalize(replacement);
+		TagTokenizer tokenizer = TOKENIZER.get();
+		if (!tokenizer.tokenize(tag)) {
+			return new ValidationResult(tag, tokenizer, ValidationResult.Reason.MALFORMED, -1,
+					tokenizer.errorOffset(), null, canonical.isEmpty() ? null : canonical, null);
+		}
+		Failure failure = check(tokenizer);
+		if (failure != null) {
+			return new ValidationResult(tag, tokenizer, failure.reason(), failure.subtag(),
+					tokenizer.start(failure.subtag()), null, canonical.isEmpty() ? null : canonical, null);
+		}
+		String description = describe(tokenizer, Messages.getString("RegistryParser.0"), null, null);
+		String normalized = normalize(tokenizer, false);
+		if (replacement == null) {
+			canonical = normalize(tokenizer, true);
+		}
+		return new ValidationResult(tag, tokenizer, null, -1, -1, normalized, canonical.isEmpty() ? null : canonical,
+				description.isEmpty() ? null : description);
+	}
+
+	public TagCache getCache() {
+		return cache;
 	}
 
 	public String getTagDescription(String tag) {
-		String[] parts = tag.split("-");
-		if (parts.length == 1) {
-			// language part only
-			if (languages.containsKey(tag.toLowerCase())) {
-				return languages.get(tag.toLowerCase()).getDescription();
-			}
-			if (isPrivateLanguage(tag)) {
-				return Messages.getString("RegistryParser.0");
-			}
-		} else if (parts.length == 2) {
-			// contains either script or region
-			boolean isPrivateLang = isPrivateLanguage(parts[0]);
-			if (!languages.containsKey(parts[0].toLowerCase()) && !isPrivateLang) {
-				return "";
+		LookupMetrics metrics = Metrics.current();
+		if (metrics == null) {
+			return lookupDescription(tag);
+		}
+		long start = System.nanoTime();
+		return record(metrics, LookupMetrics.Operation.DESCRIBE, tag, start, lookupDescription(tag));
+	}
+
+	private String lookupDescription(String tag) {
+		if (cache == null) {
+			return describe(tag, Messages.getString("RegistryParser.0"), null, null);
+		}
+		String description = cache.getDescription(tag);
+		if (description == null) {
+			TagTokenizer tokenizer = TOKENIZER.get();
+			if (!tokenizer.tokenize(tag)) {
+				description = "";
+			} else {
+				description = describe(tokenizer, Messages.getString("RegistryParser.0"), null, null);
+				if (usesPrivateUseLabel(tokenizer)) {
+					// the label follows the default locale, so it is not cached
+					return description;
+				}
+			}
+			cache.putDescription(tag, description);
+		}
+		return description;
+	}
+
+	private boolean usesPrivateUseLabel(TagTokenizer tokenizer) {
+		for (int i = 0; i < Math.min(tokenizer.count(), 3); i++) {
+			long key = tokenizer.key(i);
+			switch (tokenizer.type(i)) {
+				case LANGUAGE:
+					if (isPrivateLanguage(key)) {
+						return true;
+					}
+					break;
+				case SCRIPT:
+					if (isPrivateScript(key)) {
+						return true;
+					}
+					break;
+				case REGION:
+					if (isPrivateRegion(key)) {
+						return true;
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		return false;
+	}
+
+	// languageNames, when not null, replaces registry descriptions of language subtags;
+	// locale, when not null, selects the JDK names of scripts and regions
+	String describe(String tag, String privateUse, Map<String, Language> languageNames, Locale locale) {
+		TagTokenizer tokenizer = TOKENIZER.get();
+		if (!tokenizer.tokenize(tag)) {
+			return "";
+		}
+		return describe(tokenizer, privateUse, languageNames, locale);
+	}
+
+	private String regionName(int index, String privateUse, Locale locale) {
+		String description = pool.get(regions.description(index));
+		if (locale == null) {
+			return description;
+		}
+		if (regions.extra(index) != 0) {
+			// registered private use regions such as AA have no JDK name
+			return privateUse;
+		}
+		String code = pool.get(regions.code(index));
+		String name = new Locale.Builder().setRegion(code).build().getDisplayCountry(locale);
+		// the JDK returns the code when it has no name for the region
+		return name.isEmpty() || name.equals(code) ? description : name;
+	}
+
+	private String scriptName(int index, Locale locale) {
+		String description = pool.get(scripts.description(index));
+		if (locale == null) {
+			return description;
+		}
+		String code = pool.get(scripts.code(index));
+		String name = new Locale.Builder().setScript(code).build().getDisplayScript(locale);
+		return name.isEmpty() || name.equals(code) ? description : name;
+	}
+
+	private String describe(TagTokenizer tokenizer, String privateUse, Map<String, Language> languageNames,
+			Locale locale) {
+		if (tokenizer.count() > 3 || tokenizer.type(0) != TagTokenizer.SubtagType.LANGUAGE) {
+			return "";
+		}
+		long languageKey = tokenizer.key(0);
+		boolean isPrivateLang = isPrivateLanguage(languageKey);
+		int lang = languages.indexOf(languageKey);
+		if (lang == SubtagTable.NOT_FOUND && !isPrivateLang) {
+			return "";
+		}
+		String langDesc = lang != SubtagTable.NOT_FOUND ? pool.get(languages.description(lang)) : privateUse;
+		if (lang != SubtagTable.NOT_FOUND && languageNames != null) {
+			Language name = languageNames.get(pool.get(languages.code(lang)));
+			if (name != null) {
+				langDesc = name.getDescription();
 			}
-			String langDesc = isPrivateLang ? Messages.getString("RegistryParser.0")
-					: languages.get(parts[0].toLowerCase()).getDescription();
-			Language lang = isPrivateLang ? null : languages.get(parts[0].toLowerCase());
-			if (parts[1].length() == 2 && (regions.containsKey(parts[1].toUpperCase()) || isPrivateRegion(parts[1]))) {
-				// could be a country code
-				String regionDesc = isPrivateRegion(parts[1]) ? Messages.getString("RegistryParser.0")
-						: regions.get(parts[1].toUpperCase()).getDescription();
-				return langDesc + " (" + regionDesc + ")";
-			}
-			if (parts[1].length() == 3 && regions.containsKey(parts[1])) {
-				// could be a UN region code
-				Region reg = regions.get(parts[1]);
-				return langDesc + " (" + reg.getDescription() + ")";
-			}
-			if (parts[1].length() == 4) {
-				// could have script
-				String script = parts[1].substring(0, 1).toUpperCase() + parts[1].substring(1).toLowerCase();
-				if (lang != null && script.equals(lang.getSuppresedScript())) {
+		}
+		if (tokenizer.count() == 1) {
+			return langDesc;
+		}
+		TagTokenizer.SubtagType second = tokenizer.type(1);
+		if (tokenizer.count() == 2) {
+			if (second == TagTokenizer.SubtagType.REGION) {
+				long region = tokenizer.key(1);
+				if (isPrivateRegion(region)) {
+					return langDesc + " (" + privateUse + ")";
+				}
+				int reg = regions.indexOf(region);
+				if (reg != SubtagTable.NOT_FOUND) {
+					return langDesc + " (" + regionName(reg, privateUse, locale) + ")";
+				}
+			} else if (second == TagTokenizer.SubtagType.SCRIPT) {
+				long script = tokenizer.key(1);
+				if (lang != SubtagTable.NOT_FOUND && script == languages.extra(lang)) {
 					return "";
 				}
-				if (scripts.containsKey(script)) {
-					return langDesc + " (" + scripts.get(script).getDescription() + ")";
+				int scr = scripts.indexOf(script);
+				if (scr != SubtagTable.NOT_FOUND) {
+					return langDesc + " (" + scriptName(scr, locale) + ")";
 				}
 				if (isPrivateScript(script)) {
-					return langDesc + " (" + Messages.getString("RegistryParser.0") + ")";
+					return langDesc + " (" + privateUse + ")";
 				}
-			}
-			// try with a variant
-			if (!isPrivateLang && variants.containsKey(parts[1].toLowerCase())) {
-				Variant variant = variants.get(parts[1].toLowerCase());
-				if (variant != null && variant.getPrefix().equals(parts[0].toLowerCase())) {
+			} else if (second == TagTokenizer.SubtagType.VARIANT && lang != SubtagTable.NOT_FOUND) {
+				int variant = getVariant(tokenizer, 1);
+				if (variant != SubtagTable.NOT_FOUND) {
 					// variant is valid for the language code
-					return langDesc + " (" + variant.getDescription() + ")";
+					return langDesc + " (" + pool.get(variants.description(variant)) + ")";
 				}
 			}
-			if (isPrivateLang) {
-				return Messages.getString("RegistryParser.0");
+			return isPrivateLang ? privateUse : "";
+		}
+		TagTokenizer.SubtagType third = tokenizer.type(2);
+		if (second == TagTokenizer.SubtagType.SCRIPT) {
+			// could be script + region or variant
+			long script = tokenizer.key(1);
+			if (lang != SubtagTable.NOT_FOUND && script == languages.extra(lang)) {
+				return "";
 			}
-		} else if (parts.length == 3) {
-			boolean isPrivateLang = isPrivateLanguage(parts[0]);
-			if (!languages.containsKey(parts[0].toLowerCase()) && !isPrivateLang) {
+			int scr = scripts.indexOf(script);
+			if (scr == SubtagTable.NOT_FOUND && !isPrivateScript(script)) {
 				return "";
 			}
-			String langDesc = isPrivateLang ? Messages.getString("RegistryParser.0")
-					: languages.get(parts[0].toLowerCase()).getDescription();
-			Language lang = isPrivateLang ? null : languages.get(parts[0].toLowerCase());
-			if (parts[1].length() == 4) {
-				// could be script + region or variant
-				String script = parts[1].substring(0, 1).toUpperCase() + parts[1].substring(1).toLowerCase();
-				if (lang != null && script.equals(lang.getSuppresedScript())) {
-					return "";
+			String scrDesc = scr == SubtagTable.NOT_FOUND ? privateUse : scriptName(scr, locale);
+			if (third == TagTokenizer.SubtagType.REGION) {
+				long region = tokenizer.key(2);
+				int reg = regions.indexOf(region);
+				if (reg != SubtagTable.NOT_FOUND || isPrivateRegion(region)) {
+					String regDesc = isPrivateRegion(region) ? privateUse : regionName(reg, privateUse, locale);
+					return langDesc + " (" + scrDesc + ", " + regDesc + ")";
 				}
-				boolean isPrivateScr = isPrivateScript(script);
-				if (scripts.containsKey(script) || isPrivateScr) {
-					String scrDesc = isPrivateScr ? Messages.getString("RegistryParser.0")
-							: scripts.get(script).getDescription();
-					// check if next part is a region or variant
-					boolean isPrivateReg = isPrivateRegion(parts[2]);
-					if (regions.containsKey(parts[2].toUpperCase()) || isPrivateReg) {
-						String regDesc = isPrivateReg ? Messages.getString("RegistryParser.0")
-								: regions.get(parts[2].toUpperCase()).getDescription();
-						return langDesc + " (" + scrDesc + ", " + regDesc + ")";
-					}
-					if (!isPrivateLang && variants.containsKey(parts[2].toLowerCase())) {
-						Variant variant = variants.get(parts[2].toLowerCase());
-						if (variant != null && variant.getPrefix().equals(parts[0].toLowerCase())) {
-							// variant is valid for the language code
-							return langDesc + " (" + scrDesc + ", " + variant.getDescription()
-									+ ")";
-						}
-					}
+			} else if (third == TagTokenizer.SubtagType.VARIANT && lang != SubtagTable.NOT_FOUND) {
+				int variant = getVariant(tokenizer, 2);
+				if (variant != SubtagTable.NOT_FOUND) {
+					// variant is valid for the language code
+					return langDesc + " (" + scrDesc + ", " + pool.get(variants.description(variant)) + ")";
 				}
-			} else {
-				// could be region + variant
-				boolean isPrivateReg = isPrivateRegion(parts[1]);
-				if ((parts[1].length() == 2 || parts[1].length() == 3)
-						&& (regions.containsKey(parts[1].toUpperCase()) || isPrivateReg)) {
-					// could be a region code, check if next part is a variant
-					String regDesc = isPrivateReg ? Messages.getString("RegistryParser.0")
-							: regions.get(parts[1].toUpperCase()).getDescription();
-					if (!isPrivateLang && variants.containsKey(parts[2].toLowerCase())) {
-						Variant variant = variants.get(parts[2].toLowerCase());
-						if (variant != null && variant.getPrefix().equals(parts[0].toLowerCase())) {
-							// variant is valid for the language code
-							return langDesc + " (" + regDesc + " - "
-									+ variant.getDescription() + ")";
-						}
-					}
-					// For private-use languages with regions, return description
-					if (isPrivateLang) {
-						return langDesc + " (" + regDesc + ")";
+			}
+		} else if (second == TagTokenizer.SubtagType.REGION) {
+			// could be region + variant
+			long region = tokenizer.key(1);
+			int reg = regions.indexOf(region);
+			if (reg != SubtagTable.NOT_FOUND || isPrivateRegion(region)) {
+				String regDesc = isPrivateRegion(region) ? privateUse : regionName(reg, privateUse, locale);
+				if (third == TagTokenizer.SubtagType.VARIANT && lang != SubtagTable.NOT_FOUND) {
+					int variant = getVariant(tokenizer, 2);
+					if (variant != SubtagTable.NOT_FOUND) {
+						// variant is valid for the language code
+						return langDesc + " (" + regDesc + " - " + pool.get(variants.description(variant)) + ")";
 					}
 				}
+				// For private-use languages with regions, return description
+				if (isPrivateLang) {
+					return langDesc + " (" + regDesc + ")";
+				}
 			}
 		}
 		return "";
 	}
 
 	public String normalizeCode(String code) {
-		String[] parts = code.split("-");
-		if (parts.length == 1) {
-			// language part only
-			if (languages.containsKey(code.toLowerCase())) {
-				return code.toLowerCase();
-			}
-			if (isPrivateLanguage(code)) {
-				return code.toLowerCase();
-			}
-		} else if (parts.length == 2) {
-			// contains either script or region
-			boolean isPrivateLang = isPrivateLanguage(parts[0]);
-			if (!languages.containsKey(parts[0].toLowerCase()) && !isPrivateLang) {
-				return "";
-			}
-			Language lang = isPrivateLang ? null : languages.get(parts[0].toLowerCase());
-			if (parts[1].length() == 2 && (regions.containsKey(parts[1].toUpperCase()) || isPrivateRegion(parts[1]))) {
-				// could be a country code
-				return parts[0].toLowerCase() + "-" + parts[1].toUpperCase();
-			}
-			if (parts[1].length() == 3 && regions.containsKey(parts[1])) {
-				// could be a UN region code
-				return parts[0].toLowerCase() + "-" + parts[1];
-			}
-			if (parts[1].length() == 4) {
-				// could have script
-				String script = parts[1].substring(0, 1).toUpperCase() + parts[1].substring(1).toLowerCase();
-				if (lang != null && script.equals(lang.getSuppresedScript())) {
-					return "";
-				}
-				if (scripts.containsKey(script) || isPrivateScript(script)) {
-					return parts[0].toLowerCase() + "-" + script;
-				}
+		LookupMetrics metrics = Metrics.current();
+		if (metrics == null) {
+			return lookupCode(code);
+		}
+		long start = System.nanoTime();
+		return record(metrics, LookupMetrics.Operation.NORMALIZE, code, start, lookupCode(code));
+	}
+
+	// the overloads below return the same String instance for every occurrence of a valid tag
+	public String normalizeCode(CharSequence code) {
+		String tag = recognized.find(code, 0, code.length());
+		return tag != null ? tag : learn(code.toString());
+	}
+
+	public String normalizeCode(char[] code, int offset, int length) {
+		String tag = recognized.find(code, offset, length);
+		return tag != null ? tag : learn(new String(code, offset, length));
+	}
+
+	public String normalizeCode(byte[] code, int offset, int length) {
+		String tag = recognized.find(code, offset, length);
+		return tag != null ? tag : learn(new String(code, offset, length, StandardCharsets.ISO_8859_1));
+	}
+
+	// reads the remaining bytes without moving the buffer's position
+	public String normalizeCode(ByteBuffer code) {
+		String tag = recognized.find(code);
+		if (tag != null) {
+			return tag;
+		}
+		byte[] bytes = new byte[code.remaining()];
+		code.get(code.position(), bytes);
+		return learn(new String(bytes, StandardCharsets.ISO_8859_1));
+	}
+
+	private String learn(String code) {
+		String normalized = normalizeCode(code);
+		if (!normalized.isEmpty()) {
+			recognized.add(normalized);
+		}
+		return normalized;
+	}
+
+	private String lookupCode(String code) {
+		if (cache == null) {
+			return normalize(code);
+		}
+		String normalized = cache.getCode(code);
+		if (normalized == null) {
+			normalized = normalize(code);
+			cache.putCode(code, normalized);
+		}
+		return normalized;
+	}
+
+	public String[] normalizeCodes(String[] codes) {
+		// normalize each distinct code once, in parallel for large batches; the result
+		// cache is bypassed so that one-off codes neither contend for its lock nor
+		// evict the entries of interactive lookups
+		String[] distinct = new HashSet<>(Arrays.asList(codes)).toArray(new String[0]);
+		String[] normalized = new String[distinct.length];
+		if (distinct.length >= PARALLEL_THRESHOLD) {
+			IntStream.range(0, distinct.length).parallel().forEach(i -> normalized[i] = normalize(distinct[i]));
+		} else {
+			for (int i = 0; i < distinct.length; i++) {
+				normalized[i] = normalize(distinct[i]);
 			}
-			// try with a variant
-			if (!isPrivateLang && variants.containsKey(parts[1].toLowerCase())) {
-				Variant variant = variants.get(parts[1].toLowerCase());
-				if (variant != null && variant.getPrefix().equals(parts[0].toLowerCase())) {
-					// variant is valid for the language code
-					return parts[0].toLowerCase() + "-" + variant.getCode();
-				}
+		}
+		Map<String, String> results = HashMap.newHashMap(distinct.length);
+		for (int i = 0; i < distinct.length; i++) {
+			results.put(distinct[i], normalized[i]);
+		}
+		String[] result = new String[codes.length];
+		for (int i = 0; i < codes.length; i++) {
+			result[i] = results.get(codes[i]);
+		}
+		return result;
+	}
+
+	public List<String> normalizeCodes(Collection<String> codes) {
+		return Arrays.asList(normalizeCodes(codes.toArray(new String[0])));
+	}
+
+	public List<String> normalizeCodes(Stream<String> codes) {
+		return Arrays.asList(normalizeCodes(codes.toArray(String[]::new)));
+	}
+
+	public LanguageTag getLanguageTag(String tag) {
+		String normalized = normalizeCode(tag);
+		return normalized.isEmpty() ? null : LanguageTag.intern(normalized);
+	}
+
+	public String canonicalizeCode(String code) {
+		LookupMetrics metrics = Metrics.current();
+		if (metrics == null) {
+			return lookupCanonical(code);
+		}
+		long start = System.nanoTime();
+		return record(metrics, LookupMetrics.Operation.CANONICALIZE, code, start, lookupCanonical(code));
+	}
+
+	private String lookupCanonical(String code) {
+		if (cache == null) {
+			return canonicalize(code);
+		}
+		String canonical = cache.getCanonical(code);
+		if (canonical == null) {
+			canonical = canonicalize(code);
+			cache.putCanonical(code, canonical);
+		}
+		return canonical;
+	}
+
+	public String getMacrolanguage(String tag) {
+		int language = primaryLanguage(tag);
+		if (language == SubtagTable.NOT_FOUND || macrolanguages[language] == SubtagTable.NOT_FOUND) {
+			return null;
+		}
+		return pool.get(languages.code(macrolanguages[language]));
+	}
+
+	public List<String> getEncompassedLanguages(String tag) {
+		int language = primaryLanguage(tag);
+		if (language == SubtagTable.NOT_FOUND) {
+			return List.of();
+		}
+		String[] result = new String[memberStarts[language + 1] - memberStarts[language]];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = pool.get(languages.code(members[memberStarts[language] + i]));
+		}
+		return List.of(result);
+	}
+
+	private int primaryLanguage(String tag) {
+		// "zh-cmn" stands for the extlang's own language record "cmn" and
+		// "zh-guoyu" for the language of its Preferred-Value
+		String replacement = replacement(tag);
+		TagTokenizer tokenizer = TOKENIZER.get();
+		if (!tokenizer.tokenize(replacement != null ? replacement : tag)
+				|| tokenizer.type(0) != TagTokenizer.SubtagType.LANGUAGE) {
+			return SubtagTable.NOT_FOUND;
+		}
+		if (tokenizer.count() > 1 && tokenizer.type(1) == TagTokenizer.SubtagType.EXTLANG) {
+			int extlang = extlangs.indexOf(tokenizer.key(1));
+			if (extlang == SubtagTable.NOT_FOUND || extlangs.extra(extlang) != tokenizer.key(0)) {
+				return SubtagTable.NOT_FOUND;
 			}
-		} else if (parts.length == 3) {
-			boolean isPrivateLang = isPrivateLanguage(parts[0]);
-			if (!languages.containsKey(parts[0].toLowerCase()) && !isPrivateLang) {
-				return "";
+			return languages.indexOf(tokenizer.key(1));
+		}
+		return languages.indexOf(tokenizer.key(0));
+	}
+
+	// the Preferred-Value of a grandfathered or redundant tag, null when it has none
+	private String replacement(String tag) {
+		return tag.length() <= longestReplacedTag ? tagReplacements.get(Ascii.toLowerCase(tag)) : null;
+	}
+
+	private String normalize(String code) {
+		TagTokenizer tokenizer = TOKENIZER.get();
+		if (!tokenizer.tokenize(code)) {
+			return "";
+		}
+		return normalize(tokenizer, false);
+	}
+
+	private String canonicalize(String code) {
+		String replacement = replacement(code);
+		if (replacement != null) {
+			// grandfathered or redundant tag
+			code = replacement;
+		}
+		TagTokenizer tokenizer = TOKENIZER.get();
+		if (!tokenizer.tokenize(code)) {
+			return "";
+		}
+		return normalize(tokenizer, true);
+	}
+
+	private String normalize(TagTokenizer tokenizer, boolean canonical) {
+		int count = tokenizer.count();
+		StringBuilder builder = new StringBuilder(32);
+		int lang = SubtagTable.NOT_FOUND;
+		// Suppress-Script of the language written to the canonical form
+		int suppressed = 0;
+		long singletons = 0L;
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				builder.append('-');
 			}
-			Language lang = isPrivateLang ? null : languages.get(parts[0].toLowerCase());
-			if (parts[1].length() == 4) {
-				// could be script + region or variant
-				String script = parts[1].substring(0, 1).toUpperCase() + parts[1].substring(1).toLowerCase();
-				if (lang != null && script.equals(lang.getSuppresedScript())) {
-					return "";
-				}
-				boolean isPrivateScr = isPrivateScript(script);
-				if (scripts.containsKey(script) || isPrivateScr) {
-					String scrCode = isPrivateScr ? script : scripts.get(script).getCode();
-					// check if next part is a region or variant
-					boolean isPrivateReg = isPrivateRegion(parts[2]);
-					if (regions.containsKey(parts[2].toUpperCase()) || isPrivateReg) {
-						String regCode = isPrivateReg ? parts[2].toUpperCase()
-								: regions.get(parts[2].toUpperCase()).getCode();
-						return parts[0].toLowerCase() + "-" + scrCode + "-" + regCode;
+			long key = tokenizer.key(i);
+			int index;
+			switch (tokenizer.type(i)) {
+				case LANGUAGE:
+					lang = languages.indexOf(key);
+					if (lang != SubtagTable.NOT_FOUND) {
+						appendCode(builder, languages, lang, canonical);
+						suppressed = canonical ? suppressedScript(languages, lang) : 0;
+					} else if (isPrivateLanguage(key)) {
+						tokenizer.appendLowerCase(builder, i);
+					} else {
+						return "";
 					}
-					if (!isPrivateLang && variants.containsKey(parts[2].toLowerCase())) {
-						Variant variant = variants.get(parts[2].toLowerCase());
-						if (variant != null && variant.getPrefix().equals(parts[0].toLowerCase())) {
-							// variant is valid for the language code
-							return parts[0].toLowerCase() + "-" + scrCode + "-" + variant.getCode();
-						}
+					break;
+				case EXTLANG:
+					// only one extlang is allowed and it must match its Prefix
+					index = extlangs.indexOf(key);
+					if (i != 1 || index == SubtagTable.NOT_FOUND || extlangs.extra(index) != tokenizer.key(0)) {
+						return "";
 					}
-				}
-			} else {
-				// could be region + variant
-				boolean isPrivateReg = isPrivateRegion(parts[1]);
-				if ((parts[1].length() == 2 || parts[1].length() == 3)
-						&& (regions.containsKey(parts[1].toUpperCase()) || isPrivateReg)) {
-					// could be a region code, check if next part is a variant
-					String regCode = isPrivateReg ? parts[1].toUpperCase()
-							: regions.get(parts[1].toUpperCase()).getCode();
-					if (!isPrivateLang && variants.containsKey(parts[2].toLowerCase())) {
-						Variant variant = variants.get(parts[2].toLowerCase());
-						if (variant != null && variant.getPrefix().equals(parts[0].toLowerCase())) {
-							// variant is valid for the language code
-							return parts[0].toLowerCase() + "-" + regCode + "-" + variant.getCode();
-						}
+					if (canonical) {
+						// the extlang form is replaced by the extlang's Preferred-Value
+						builder.setLength(0);
+					}
+					appendCode(builder, extlangs, index, canonical);
+					if (canonical) {
+						suppressed = suppressedScript(extlangs, index);
+					}
+					break;
+				case SCRIPT:
+					if (lang != SubtagTable.NOT_FOUND && key == languages.extra(lang)) {
+						return "";
+					}
+					if (key == suppressed) {
+						// the replacement language suppresses this script
+						builder.setLength(builder.length() - 1);
+						break;
+					}
+					index = scripts.indexOf(key);
+					if (index != SubtagTable.NOT_FOUND) {
+						appendCode(builder, scripts, index, canonical);
+					} else if (isPrivateScript(key)) {
+						tokenizer.appendTitleCase(builder, i);
+					} else {
+						return "";
+					}
+					break;
+				case REGION:
+					index = regions.indexOf(key);
+					if (index != SubtagTable.NOT_FOUND) {
+						appendCode(builder, regions, index, canonical);
+					} else if (isPrivateRegion(key)) {
+						tokenizer.appendUpperCase(builder, i);
+					} else {
+						return "";
 					}
-					// For private-use languages with regions, return normalized code
-					if (isPrivateLang) {
-						return parts[0].toLowerCase() + "-" + regCode;
+					break;
+				case VARIANT:
+					index = getVariant(tokenizer, i);
+					if (index == SubtagTable.NOT_FOUND || containsKey(tokenizer, i, TagTokenizer.SubtagType.VARIANT, key)) {
+						return "";
 					}
+					appendCode(builder, variants, index, canonical);
+					break;
+				case SINGLETON:
+					// each extension singleton may appear only once
+					long bit = 1L << key;
+					if ((singletons & bit) != 0) {
+						return "";
+					}
+					singletons |= bit;
+					tokenizer.appendLowerCase(builder, i);
+					break;
+				default:
+					// extension and private use subtags are not registered
+					tokenizer.appendLowerCase(builder, i);
+			}
+		}
+		if (canonical && Long.bitCount(singletons) > 1) {
+			return sortExtensions(builder.toString());
+		}
+		return builder.toString();
+	}
+
+	// the Suppress-Script of the language that replaces a subtag, 0 when it has none
+	private int suppressedScript(SubtagTable table, int index) {
+		int preferred = table.preferred(index);
+		if (preferred == -1) {
+			return table == languages ? languages.extra(index) : 0;
+		}
+		int replacement = languages.indexOf(SubtagTable.pack(pool.get(preferred)));
+		return replacement == SubtagTable.NOT_FOUND ? 0 : languages.extra(replacement);
+	}
+
+	private void appendCode(StringBuilder builder, SubtagTable table, int index, boolean canonical) {
+		if (canonical && table.preferred(index) != -1) {
+			pool.append(builder, table.preferred(index));
+		} else {
+			pool.append(builder, table.code(index));
+		}
+	}
+
+	private static String sortExtensions(String tag) {
+		// canonical tags list extensions in singleton order; the shared tokenizer
+		// may still hold the subtags of the tag being canonicalized
+		TagTokenizer tokenizer = new TagTokenizer();
+		tokenizer.tokenize(tag);
+		List<String> extensions = new ArrayList<>();
+		int first = -1;
+		int current = -1;
+		int end = tag.length();
+		for (int i = 0; i < tokenizer.count(); i++) {
+			TagTokenizer.SubtagType type = tokenizer.type(i);
+			if (type == TagTokenizer.SubtagType.SINGLETON) {
+				if (current == -1) {
+					first = tokenizer.start(i);
+				} else {
+					extensions.add(tag.substring(current, tokenizer.start(i) - 1));
 				}
+				current = tokenizer.start(i);
+			} else if (type == TagTokenizer.SubtagType.PRIVATE_USE) {
+				end = tokenizer.start(i) - 1;
+				break;
 			}
 		}
-		return "";
+		extensions.add(tag.substring(current, end));
+		Collections.sort(extensions);
+		return tag.substring(0, first) + String.join("-", extensions) + tag.substring(end);
+	}
+
+	private int getVariant(TagTokenizer tokenizer, int position) {
+		int variant = variants.indexOf(tokenizer.key(position));
+		if (variant == SubtagTable.NOT_FOUND) {
+			return SubtagTable.NOT_FOUND;
+		}
+		long[][] prefixes = variantPrefixes[variant];
+		if (prefixes.length == 0) {
+			// variant can be used with any language
+			return variant;
+		}
+		for (int i = 0; i < prefixes.length; i++) {
+			if (matchesPrefix(tokenizer, position, prefixes[i], variantPrefixTypes[variant][i])) {
+				return variant;
+			}
+		}
+		return SubtagTable.NOT_FOUND;
+	}
+
+	// the Prefix must start with the tag's language and each of its other
+	// subtags must appear before the variant with the same type
+	private static boolean matchesPrefix(TagTokenizer tokenizer, int position, long[] keys,
+			TagTokenizer.SubtagType[] types) {
+		if (types[0] != tokenizer.type(0) || keys[0] != tokenizer.key(0)) {
+			return false;
+		}
+		for (int i = 1; i < keys.length; i++) {
+			if (!containsKey(tokenizer, position, types[i], keys[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean containsKey(TagTokenizer tokenizer, int count, TagTokenizer.SubtagType type, long key) {
+		for (int i = 0; i < count; i++) {
+			if (tokenizer.key(i) == key && tokenizer.type(i) == type) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 }
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+class RegistrySnapshot {
+
+	static final String RESOURCE = "language-subtag-registry.bin";
+
+	private static final int MAGIC = 0x42435034;
+	private static final int VERSION = 6;
+
+	private RegistrySnapshot() {
+		// do not instantiate
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: RegistrySnapshot <language-subtag-registry.txt> <output file>");
+			System.exit(1);
+		}
+		RegistryParser parser = new RegistryParser(Path.of(args[0]).toUri().toURL());
+		Writer writer = new Writer();
+		parser.writeSnapshot(writer);
+		Path output = Path.of(args[1]);
+		if (output.getParent() != null) {
+			Files.createDirectories(output.getParent());
+		}
+		try (OutputStream out = Files.newOutputStream(output)) {
+			writer.save(out);
+		}
+	}
+
+	static class Writer {
+
+		private final Map<String, Integer> offsets = new HashMap<>();
+		private final StringBuilder pool = new StringBuilder();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private final DataOutputStream data = new DataOutputStream(body);
+
+		void writeInt(int value) throws IOException {
+			data.writeInt(value);
+		}
+
+		void writeInts(int[] values) throws IOException {
+			data.writeInt(values.length);
+			for (int value : values) {
+				data.writeInt(value);
+			}
+		}
+
+		void writeLongs(long[] values) throws IOException {
+			data.writeInt(values.length);
+			for (long value : values) {
+				data.writeLong(value);
+			}
+		}
+
+		void writeString(String value) throws IOException {
+			if (value == null) {
+				data.writeInt(-1);
+				data.writeInt(0);
+				return;
+			}
+			Integer offset = offsets.get(value);
+			if (offset == null) {
+				offset = pool.length();
+				pool.append(value);
+				offsets.put(value, offset);
+			}
+			data.writeInt(offset);
+			data.writeInt(value.length());
+		}
+
+		void save(OutputStream out) throws IOException {
+			byte[] text = pool.toString().getBytes(StandardCharsets.UTF_8);
+			DataOutputStream stream = new DataOutputStream(out);
+			stream.writeInt(MAGIC);
+			stream.writeInt(VERSION);
+			stream.writeInt(text.length);
+			stream.write(text);
+			data.flush();
+			body.writeTo(stream);
+			stream.flush();
+		}
+	}
+
+	static class Reader {
+
+		private final ByteBuffer buffer;
+		private final String pool;
+
+		private Reader(ByteBuffer buffer) throws IOException {
+			if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Invalid registry snapshot");
+			}
+			int size = buffer.getInt();
+			pool = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), size)).toString();
+			buffer.position(buffer.position() + size);
+			this.buffer = buffer;
+		}
+
+		static Reader open(URL url) throws IOException {
+			if ("file".equals(url.getProtocol())) {
+				// map the file instead of copying it to the heap
+				try (FileChannel channel = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+					return new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+				} catch (URISyntaxException e) {
+					throw new IOException(e);
+				}
+			}
+			try (InputStream input = url.openStream()) {
+				return new Reader(ByteBuffer.wrap(input.readAllBytes()));
+			}
+		}
+
+		int readInt() {
+			return buffer.getInt();
+		}
+
+		int[] readInts() {
+			int[] values = new int[buffer.getInt()];
+			buffer.asIntBuffer().get(values);
+			buffer.position(buffer.position() + values.length * Integer.BYTES);
+			return values;
+		}
+
+		long[] readLongs() {
+			long[] values = new long[buffer.getInt()];
+			buffer.asLongBuffer().get(values);
+			buffer.position(buffer.position() + values.length * Long.BYTES);
+			return values;
+		}
+
+		String readString() {
+			int offset = buffer.getInt();
+			int length = buffer.getInt();
+			return offset == -1 ? null : pool.substring(offset, offset + length);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public class ReloadableRegistry {
+
+	private final int cacheSize;
+	private volatile RegistryParser current;
+
+	public ReloadableRegistry(RegistryParser registry) {
+		current = registry;
+		cacheSize = registry.getCache() == null ? 0 : registry.getCache().getCapacity();
+	}
+
+	public RegistryParser get() {
+		return current;
+	}
+
+	public CompletableFuture<Boolean> reloadAsync(URL url) {
+		return reloadAsync(url, ForkJoinPool.commonPool());
+	}
+
+	public CompletableFuture<Boolean> reloadAsync(URL url, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return reload(url);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	// readers keep using the current registry until the new one is complete
+	public synchronized boolean reload(URL url) throws IOException {
+		RegistryParser previous = current;
+		RegistryParser next = new RegistryParser(url, cacheSize);
+		if (!isNewer(next.getRegistryDate(), previous.getRegistryDate())) {
+			return false;
+		}
+		next.retainCache(previous, next.changedSubtags(previous));
+		current = next;
+		return true;
+	}
+
+	private static boolean isNewer(String date, String currentDate) {
+		if (date == null) {
+			return false;
+		}
+		// File-Date values are ISO 8601 dates
+		return currentDate == null || date.compareTo(currentDate) > 0;
+	}
+}
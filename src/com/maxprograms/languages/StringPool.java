@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class StringPool {
+
+	// a reference packs the offset of a string in the pool and its length
+	private static final int LENGTH_BITS = 12;
+	private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+	// larger offsets would make refs negative, and -1 means no value in SubtagTable
+	private static final int MAX_OFFSET = Integer.MAX_VALUE >> LENGTH_BITS;
+
+	private final String text;
+
+	StringPool(String text) {
+		this.text = text;
+	}
+
+	String getText() {
+		return text;
+	}
+
+	String get(int ref) {
+		int offset = ref >>> LENGTH_BITS;
+		return text.substring(offset, offset + (ref & MAX_LENGTH));
+	}
+
+	void append(StringBuilder builder, int ref) {
+		int offset = ref >>> LENGTH_BITS;
+		builder.append(text, offset, offset + (ref & MAX_LENGTH));
+	}
+
+	static class Builder {
+
+		private final StringBuilder text = new StringBuilder();
+		private final Map<String, Integer> refs = new HashMap<>();
+
+		int add(String value) {
+			Integer ref = refs.get(value);
+			if (ref == null) {
+				if (value.length() > MAX_LENGTH) {
+					throw new IllegalArgumentException("String too long for pool: " + value);
+				}
+				if (text.length() > MAX_OFFSET) {
+					throw new IllegalArgumentException("String pool is full: " + text.length() + " characters");
+				}
+				ref = (text.length() << LENGTH_BITS) | value.length();
+				text.append(value);
+				refs.put(value, ref);
+			}
+			return ref;
+		}
+
+		StringPool build() {
+			return new StringPool(text.toString());
+		}
+	}
+}
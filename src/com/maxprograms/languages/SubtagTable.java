@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+final class SubtagTable {
+
+	static final int NOT_FOUND = -1;
+
+	// sorted packed subtags with their canonical code, description, a type
+	// specific value (Suppress-Script, extlang Prefix or variant Prefix) and
+	// the Preferred-Value of deprecated subtags
+	private final long[] keys;
+	private final int[] codes;
+	private final int[] descriptions;
+	private final int[] extras;
+	private final int[] preferred;
+	// perfect hash built with "hash and displace": the key's bucket holds a seed,
+	// the seeded hash selects a slot holding the key's index in the columns
+	private final int[] seeds;
+	private final int[] slots;
+
+	private SubtagTable(long[] keys, int[] codes, int[] descriptions, int[] extras, int[] preferred, int[] seeds,
+			int[] slots) {
+		this.keys = keys;
+		this.codes = codes;
+		this.descriptions = descriptions;
+		this.extras = extras;
+		this.preferred = preferred;
+		this.seeds = seeds;
+		this.slots = slots;
+	}
+
+	// Packs up to 10 ASCII letters or digits in a long, 6 bits per character,
+	// ignoring case. Keys of the same length sort like the subtags themselves
+	// and longer subtags always get larger keys.
+	static long pack(CharSequence text, int start, int length) {
+		if (length > 10) {
+			return -1L;
+		}
+		long key = 0L;
+		for (int i = start; i < start + length; i++) {
+			char c = text.charAt(i);
+			int code;
+			switch (Ascii.type(c)) {
+				case Ascii.DIGIT:
+					code = c - '0' + 1;
+					break;
+				case Ascii.ALPHA:
+					code = Ascii.toLower(c) - 'a' + 11;
+					break;
+				default:
+					return -1L;
+			}
+			key = (key << 6) | code;
+		}
+		return key;
+	}
+
+	static long pack(CharSequence text) {
+		return pack(text, 0, text.length());
+	}
+
+	int indexOf(long key) {
+		int seed = seeds[(int) (hash(key, 0) >>> 40) & (seeds.length - 1)];
+		int index = slots[(int) hash(key, seed) & (slots.length - 1)];
+		return index != NOT_FOUND && keys[index] == key ? index : NOT_FOUND;
+	}
+
+	private static long hash(long key, int seed) {
+		// MurmurHash3 finalizer
+		long h = key ^ (seed * 0x9E3779B97F4A7C15L);
+		h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	// fills slots and returns the bucket seeds, or null when some bucket found no free slots
+	private static int[] displace(long[] keys, int bucketCount, int[] slots) {
+		int[][] buckets = new int[bucketCount][];
+		int[] sizes = new int[bucketCount];
+		for (long key : keys) {
+			sizes[(int) (hash(key, 0) >>> 40) & (bucketCount - 1)]++;
+		}
+		for (int b = 0; b < bucketCount; b++) {
+			buckets[b] = new int[sizes[b]];
+			sizes[b] = 0;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			int b = (int) (hash(keys[i], 0) >>> 40) & (bucketCount - 1);
+			buckets[b][sizes[b]++] = i;
+		}
+		// largest buckets first, while most slots are still free
+		Integer[] order = new Integer[bucketCount];
+		for (int b = 0; b < bucketCount; b++) {
+			order[b] = b;
+		}
+		Arrays.sort(order, (a, b) -> buckets[b].length - buckets[a].length);
+		Arrays.fill(slots, NOT_FOUND);
+		int[] seeds = new int[bucketCount];
+		int[] taken = new int[4];
+		for (int b : order) {
+			int[] bucket = buckets[b];
+			if (taken.length < bucket.length) {
+				taken = new int[bucket.length];
+			}
+			boolean placed = false;
+			for (int seed = 1; seed < 1 << 16 && !placed; seed++) {
+				placed = true;
+				for (int j = 0; j < bucket.length && placed; j++) {
+					int slot = (int) hash(keys[bucket[j]], seed) & (slots.length - 1);
+					if (slots[slot] != NOT_FOUND) {
+						placed = false;
+					}
+					for (int k = 0; k < j && placed; k++) {
+						placed = taken[k] != slot;
+					}
+					taken[j] = slot;
+				}
+				if (placed) {
+					seeds[b] = seed;
+					for (int j = 0; j < bucket.length; j++) {
+						slots[taken[j]] = bucket[j];
+					}
+				}
+			}
+			if (!placed) {
+				return null;
+			}
+		}
+		return seeds;
+	}
+
+	private static SubtagTable create(long[] keys, int[] codes, int[] descriptions, int[] extras, int[] preferred) {
+		int bucketCount = Integer.highestOneBit(Math.max(keys.length / 4, 1) * 2 - 1);
+		int slotCount = Integer.highestOneBit(Math.max(keys.length, 1) * 2 - 1);
+		while (true) {
+			int[] slots = new int[slotCount];
+			int[] seeds = displace(keys, bucketCount, slots);
+			if (seeds != null) {
+				return new SubtagTable(keys, codes, descriptions, extras, preferred, seeds, slots);
+			}
+			slotCount *= 2;
+		}
+	}
+
+	int size() {
+		return keys.length;
+	}
+
+	long key(int index) {
+		return keys[index];
+	}
+
+	int code(int index) {
+		return codes[index];
+	}
+
+	int description(int index) {
+		return descriptions[index];
+	}
+
+	int extra(int index) {
+		return extras[index];
+	}
+
+	int preferred(int index) {
+		return preferred[index];
+	}
+
+	void write(RegistrySnapshot.Writer writer) throws IOException {
+		writer.writeLongs(keys);
+		writer.writeInts(codes);
+		writer.writeInts(descriptions);
+		writer.writeInts(extras);
+		writer.writeInts(preferred);
+		writer.writeInts(seeds);
+		writer.writeInts(slots);
+	}
+
+	static SubtagTable read(RegistrySnapshot.Reader reader) {
+		return new SubtagTable(reader.readLongs(), reader.readInts(), reader.readInts(), reader.readInts(),
+				reader.readInts(), reader.readInts(), reader.readInts());
+	}
+
+	static class Builder {
+
+		private final List<long[]> rows = new ArrayList<>();
+
+		void add(long key, int code, int description, int extra, int preferred) {
+			rows.add(new long[] { key, code, description, extra, preferred });
+		}
+
+		SubtagTable build() {
+			rows.sort(Comparator.comparingLong(row -> row[0]));
+			int size = rows.size();
+			long[] keys = new long[size];
+			int[] codes = new int[size];
+			int[] descriptions = new int[size];
+			int[] extras = new int[size];
+			int[] preferred = new int[size];
+			for (int i = 0; i < size; i++) {
+				long[] row = rows.get(i);
+				keys[i] = row[0];
+				codes[i] = (int) row[1];
+				descriptions[i] = (int) row[2];
+				extras[i] = (int) row[3];
+				preferred[i] = (int) row[4];
+			}
+			return create(keys, codes, descriptions, extras, preferred);
+		}
+	}
+}
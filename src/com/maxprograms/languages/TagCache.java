@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+public class TagCache {
+
+	// CLOCK (second chance) eviction: reads only set a flag and never lock,
+	// entries that are not read again before the hand comes back are evicted
+	private final int capacity;
+	private final Map<String, Entry> map;
+	private final Entry[] ring;
+	private int size;
+	private int hand;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	TagCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Cache capacity must be positive");
+		}
+		this.capacity = capacity;
+		map = new ConcurrentHashMap<>(capacity);
+		ring = new Entry[capacity];
+	}
+
+	String getCode(String tag) {
+		Entry entry = map.get(tag);
+		String code = entry == null ? null : entry.code;
+		return hit(entry, code);
+	}
+
+	String getCanonical(String tag) {
+		Entry entry = map.get(tag);
+		String canonical = entry == null ? null : entry.canonical;
+		return hit(entry, canonical);
+	}
+
+	String getDescription(String tag) {
+		Entry entry = map.get(tag);
+		String description = entry == null ? null : entry.description;
+		return hit(entry, description);
+	}
+
+	private String hit(Entry entry, String value) {
+		if (value == null) {
+			misses.increment();
+			return null;
+		}
+		if (!entry.referenced) {
+			// hot entries are read far more often than the hand clears them
+			entry.referenced = true;
+		}
+		hits.increment();
+		return value;
+	}
+
+	void putCode(String tag, String code) {
+		entry(tag).code = code;
+	}
+
+	void putCanonical(String tag, String canonical) {
+		entry(tag).canonical = canonical;
+	}
+
+	void putDescription(String tag, String description) {
+		entry(tag).description = description;
+	}
+
+	// canonicalFilter also sees the cached canonical form, which may depend on records of other subtags
+	void copyTo(TagCache target, Predicate<String> filter, BiPredicate<String, String> canonicalFilter) {
+		for (Entry entry : map.values()) {
+			if (filter.test(entry.tag)) {
+				Entry copy = target.entry(entry.tag);
+				copy.code = entry.code;
+				String canonical = entry.canonical;
+				if (canonical != null && canonicalFilter.test(entry.tag, canonical)) {
+					copy.canonical = canonical;
+				}
+				copy.description = entry.description;
+			}
+		}
+	}
+
+	private Entry entry(String tag) {
+		Entry entry = map.get(tag);
+		if (entry != null) {
+			return entry;
+		}
+		synchronized (this) {
+			entry = map.get(tag);
+			if (entry != null) {
+				return entry;
+			}
+			entry = new Entry(tag);
+			if (size < capacity) {
+				ring[size++] = entry;
+			} else {
+				while (ring[hand].referenced) {
+					ring[hand].referenced = false;
+					hand = (hand + 1) % capacity;
+				}
+				map.remove(ring[hand].tag);
+				ring[hand] = entry;
+				hand = (hand + 1) % capacity;
+				evictions.increment();
+			}
+			map.put(tag, entry);
+			return entry;
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	private static class Entry {
+		private final String tag;
+		private volatile String code;
+		private volatile String canonical;
+		private volatile String description;
+		private volatile boolean referenced;
+
+		Entry(String tag) {
+			this.tag = tag;
+		}
+	}
+}
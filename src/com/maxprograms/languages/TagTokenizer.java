@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+import java.util.Arrays;
+
+public class TagTokenizer {
+
+	public enum SubtagType {
+		LANGUAGE, EXTLANG, SCRIPT, REGION, VARIANT, SINGLETON, EXTENSION, PRIVATE_USE
+	}
+
+	// grammar states, in the order subtags may appear in a tag
+	private static final int START = 0;
+	private static final int LANGUAGE = 1;
+	private static final int LONG_LANGUAGE = 2;
+	private static final int EXTLANG = 3;
+	private static final int SCRIPT = 4;
+	private static final int REGION = 5;
+	private static final int VARIANT = 6;
+	private static final int SINGLETON = 7;
+	private static final int EXTENSION = 8;
+	private static final int PRIVATE_SINGLETON = 9;
+	private static final int PRIVATE_USE = 10;
+
+	private static final SubtagType[] TYPES = SubtagType.values();
+
+	private CharSequence tag;
+	private int[] starts;
+	private int[] lengths;
+	private byte[] types;
+	private int count;
+	private int extlangs;
+	private int errorOffset;
+
+	public TagTokenizer() {
+		starts = new int[8];
+		lengths = new int[8];
+		types = new byte[8];
+	}
+
+	public boolean tokenize(CharSequence sequence) {
+		return tokenize(sequence, 0, sequence.length());
+	}
+
+	public boolean tokenize(CharSequence sequence, int offset, int length) {
+		tag = sequence;
+		count = 0;
+		extlangs = 0;
+		errorOffset = -1;
+		int state = START;
+		int end = offset + length;
+		int start = offset;
+		int shape = 0;
+		for (int i = offset; i <= end; i++) {
+			char c = i < end ? sequence.charAt(i) : '-';
+			if (c == '-') {
+				state = next(state, start, i - start, shape == Ascii.ALPHA, shape == Ascii.DIGIT);
+				if (state < 0) {
+					errorOffset = start;
+					return false;
+				}
+				start = i + 1;
+				shape = 0;
+			} else {
+				int type = Ascii.type(c);
+				if (type == 0) {
+					errorOffset = i;
+					return false;
+				}
+				shape |= type;
+			}
+		}
+		if (state == SINGLETON || state == PRIVATE_SINGLETON) {
+			// a singleton must be followed by at least one subtag
+			errorOffset = starts[count - 1];
+			return false;
+		}
+		return true;
+	}
+
+	private int next(int state, int start, int length, boolean alpha, boolean digit) {
+		if (length == 0 || length > 8) {
+			return -1;
+		}
+		char first = tag.charAt(start);
+		if (state == PRIVATE_SINGLETON || state == PRIVATE_USE) {
+			add(start, length, SubtagType.PRIVATE_USE);
+			return PRIVATE_USE;
+		}
+		if (state == SINGLETON) {
+			if (length == 1) {
+				return -1;
+			}
+			add(start, length, SubtagType.EXTENSION);
+			return EXTENSION;
+		}
+		if (length == 1) {
+			if (state == START && first != 'x' && first != 'X') {
+				return -1;
+			}
+			if (first == 'x' || first == 'X') {
+				add(start, length, SubtagType.PRIVATE_USE);
+				return PRIVATE_SINGLETON;
+			}
+			add(start, length, SubtagType.SINGLETON);
+			return SINGLETON;
+		}
+		if (state == EXTENSION) {
+			add(start, length, SubtagType.EXTENSION);
+			return EXTENSION;
+		}
+		if (state == START) {
+			if (!alpha) {
+				return -1;
+			}
+			add(start, length, SubtagType.LANGUAGE);
+			return length <= 3 ? LANGUAGE : LONG_LANGUAGE;
+		}
+		if (alpha && length == 3 && (state == LANGUAGE || (state == EXTLANG && extlangs < 3))) {
+			extlangs++;
+			add(start, length, SubtagType.EXTLANG);
+			return EXTLANG;
+		}
+		if (alpha && length == 4 && state < SCRIPT) {
+			add(start, length, SubtagType.SCRIPT);
+			return SCRIPT;
+		}
+		if (((alpha && length == 2) || (digit && length == 3)) && state < REGION) {
+			add(start, length, SubtagType.REGION);
+			return REGION;
+		}
+		if ((length >= 5 || (length == 4 && Ascii.isDigit(first))) && state <= VARIANT) {
+			add(start, length, SubtagType.VARIANT);
+			return VARIANT;
+		}
+		return -1;
+	}
+
+	private void add(int start, int length, SubtagType type) {
+		if (count == starts.length) {
+			int size = count * 2;
+			starts = Arrays.copyOf(starts, size);
+			lengths = Arrays.copyOf(lengths, size);
+			types = Arrays.copyOf(types, size);
+		}
+		starts[count] = start;
+		lengths[count] = length;
+		types[count] = (byte) type.ordinal();
+		count++;
+	}
+
+	// offset in the sequence where the last failed tokenize call found an error, -1 after a successful one
+	public int errorOffset() {
+		return errorOffset;
+	}
+
+	public int count() {
+		return count;
+	}
+
+	public int start(int index) {
+		return starts[index];
+	}
+
+	public int length(int index) {
+		return lengths[index];
+	}
+
+	public SubtagType type(int index) {
+		return TYPES[types[index]];
+	}
+
+	public long key(int index) {
+		return SubtagTable.pack(tag, starts[index], lengths[index]);
+	}
+
+	public StringBuilder appendLowerCase(StringBuilder builder, int index) {
+		return fold(builder, index, false, false);
+	}
+
+	public StringBuilder appendUpperCase(StringBuilder builder, int index) {
+		return fold(builder, index, true, true);
+	}
+
+	public StringBuilder appendTitleCase(StringBuilder builder, int index) {
+		return fold(builder, index, true, false);
+	}
+
+	private StringBuilder fold(StringBuilder builder, int index, boolean upperFirst, boolean upperRest) {
+		int start = starts[index];
+		int length = lengths[index];
+		for (int i = 0; i < length; i++) {
+			char c = tag.charAt(start + i);
+			boolean upper = i == 0 ? upperFirst : upperRest;
+			builder.append(upper ? Ascii.toUpper(c) : Ascii.toLower(c));
+		}
+		return builder;
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2022-2026 Maxprograms. All rights reserved.
+ *
+ * This software is the proprietary property of Maxprograms.
+ * Use, modification, and distribution are subject to the terms of the 
+ * Software License Agreement found in the root of this distribution 
+ *
+ * Unauthorized redistribution or commercial use is strictly prohibited.
+ *******************************************************************************/
+package com.maxprograms.languages;
+
+public final class ValidationResult {
+
+	public enum Reason {
+		MALFORMED, UNKNOWN_LANGUAGE, INVALID_EXTLANG, SUPPRESSED_SCRIPT, UNKNOWN_SCRIPT, UNKNOWN_REGION,
+		UNKNOWN_VARIANT, INVALID_VARIANT_PREFIX, DUPLICATE_SUBTAG
+	}
+
+	private static final TagTokenizer.SubtagType[] TYPES = TagTokenizer.SubtagType.values();
+
+	private final String tag;
+	private final Reason error;
+	private final int errorSubtag;
+	private final int errorOffset;
+	private final String normalized;
+	private final String canonical;
+	private final String description;
+	// subtags recognized before any error
+	private final int[] starts;
+	private final int[] lengths;
+	private final byte[] types;
+
+	ValidationResult(String tag, TagTokenizer tokenizer, Reason error, int errorSubtag,
+			int errorOffset, String normalized, String canonical, String description) {
+		this.tag = tag;
+		this.error = error;
+		this.errorSubtag = errorSubtag;
+		this.errorOffset = errorOffset;
+		this.normalized = normalized;
+		this.canonical = canonical;
+		this.description = description;
+		int count = tokenizer.count();
+		starts = new int[count];
+		lengths = new int[count];
+		types = new byte[count];
+		for (int i = 0; i < count; i++) {
+			starts[i] = tokenizer.start(i);
+			lengths[i] = tokenizer.length(i);
+			types[i] = (byte) tokenizer.type(i).ordinal();
+		}
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public boolean isValid() {
+		return error == null;
+	}
+
+	// null when the tag is valid
+	public Reason getError() {
+		return error;
+	}
+
+	// index of the rejected subtag, -1 when the tag is valid or malformed
+	public int getErrorSubtag() {
+		return errorSubtag;
+	}
+
+	// offset of the error in the tag, -1 when the tag is valid
+	public int getErrorOffset() {
+		return errorOffset;
+	}
+
+	// the result of normalizeCode, null when the tag is not valid
+	public String getNormalized() {
+		return normalized;
+	}
+
+	// the result of canonicalizeCode, null when it is empty
+	public String getCanonical() {
+		return canonical;
+	}
+
+	// null when the registry cannot describe the tag
+	public String getDescription() {
+		return description;
+	}
+
+	public int getSubtagCount() {
+		return starts.length;
+	}
+
+	public String getSubtag(int index) {
+		return tag.substring(starts[index], starts[index] + lengths[index]);
+	}
+
+	public TagTokenizer.SubtagType getSubtagType(int index) {
+		return TYPES[types[index]];
+	}
+
+	public int getSubtagOffset(int index) {
+		return starts[index];
+	}
+
+	@Override
+	public String toString() {
+		if (isValid()) {
+			return tag + " valid: " + normalized;
+		}
+		return tag + " " + error + " at " + errorOffset;
+	}
+}
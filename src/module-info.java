@@ -11,5 +11,6 @@ module bcp47j {
 
     exports com.maxprograms.languages;
 
-    requires xmljava;
+    requires transitive java.xml;
+    requires static jdk.jfr;
 }
\ No newline at end of file